@@ -0,0 +1,116 @@
+#!/bin/bash
+
+# Smoke-tests the native executable and compares startup time and RSS with the JVM jar.
+#   mvn -Pnative native:compile      -> target/marketplace-backend (native)
+#   mvn clean package -DskipTests    -> target/marketplace-backend.jar (JVM)
+# Needs a reachable MongoDB (MONGODB_URI). Report is written to target/native-report.md.
+
+cd "$(dirname "$0")" || exit 1
+
+NATIVE_BIN=target/marketplace-backend
+JVM_JAR=target/marketplace-backend.jar
+PORT=${SMOKE_PORT:-18080}
+BASE_URL="http://localhost:$PORT"
+REPORT=target/native-report.md
+FAILURES=target/smoke-failures.txt
+
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+YELLOW='\033[1;33m'
+NC='\033[0m'
+
+# measure runs in a subshell, so failures are collected in a file rather than a counter
+: > "$FAILURES"
+
+check() {
+    local name=$1 expected=$2
+    shift 2
+    local code
+    code=$(curl -s -o /dev/null -w "%{http_code}" "$@")
+    if [ "$code" = "$expected" ]; then
+        echo -e "  ${GREEN}✓${NC} $name ($code)"
+    else
+        echo -e "  ${RED}✗${NC} $name (expected $expected, got $code)"
+        echo "$name" >> "$FAILURES"
+    fi
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+# Starts the given command, waits for liveness and prints "<startup ms> <rss kb>"
+measure() {
+    local label=$1 start pid rss
+    shift
+    start=$(now_ms)
+    "$@" --server.port=$PORT --seed.on-startup=false > "target/smoke-$label.log" 2>&1 &
+    pid=$!
+
+    for _ in $(seq 1 600); do
+        if curl -s -o /dev/null -w "%{http_code}" "$BASE_URL/actuator/health/liveness" | grep -q 200; then
+            local elapsed=$(( $(now_ms) - start ))
+            run_smoke_checks
+            rss=$(ps -o rss= -p $pid | tr -d ' ')
+            kill $pid; wait $pid 2>/dev/null
+            echo "$elapsed $rss"
+            return 0
+        fi
+        sleep 0.1
+    done
+
+    kill $pid 2>/dev/null
+    echo "timeout -"
+    return 1
+}
+
+run_smoke_checks() {
+    local email="smoke-$(date +%s%N)@test.com"
+    {
+        check "liveness" 200 "$BASE_URL/actuator/health/liveness"
+        check "prometheus scrape" 200 "$BASE_URL/actuator/prometheus"
+        check "categories" 200 "$BASE_URL/api/categories"
+        check "explore" 200 "$BASE_URL/api/explore"
+        check "unknown vendor profile" 404 "$BASE_URL/api/explore/no-such-vendor-$RANDOM/profile"
+        check "customer signup" 200 -X POST "$BASE_URL/api/auth/signup" -H "Content-Type: application/json" \
+            -d "{\"name\":\"Smoke\",\"email\":\"$email\",\"password\":\"Pass1234!\",\"consentConfirmed\":true}"
+        check "login" 200 -X POST "$BASE_URL/api/auth/login" -H "Content-Type: application/json" \
+            -d "{\"email\":\"$email\",\"password\":\"Pass1234!\"}"
+        check "admin requires token" 403 "$BASE_URL/api/admin/dashboard"
+    } >&2
+}
+
+if [ ! -x "$NATIVE_BIN" ]; then
+    echo "Native executable not found - build it with: mvn -Pnative native:compile"
+    exit 1
+fi
+
+echo -e "${YELLOW}Native executable${NC}"
+read -r NATIVE_START NATIVE_RSS < <(measure native "$NATIVE_BIN")
+
+JVM_START="-"
+JVM_RSS="-"
+if [ -f "$JVM_JAR" ]; then
+    echo -e "${YELLOW}JVM jar${NC}"
+    read -r JVM_START JVM_RSS < <(measure jvm java -jar "$JVM_JAR")
+fi
+
+cat > "$REPORT" <<EOF
+# Native vs JVM startup
+
+| Build  | Startup to liveness (ms) | RSS after smoke run (KB) |
+|--------|--------------------------|--------------------------|
+| Native | $NATIVE_START | $NATIVE_RSS |
+| JVM    | $JVM_START | $JVM_RSS |
+
+Generated $(date -u +"%Y-%m-%dT%H:%M:%SZ") on $(uname -sm).
+EOF
+
+cat "$REPORT"
+
+FAILED=$(wc -l < "$FAILURES")
+if [ "$FAILED" -gt 0 ]; then
+    echo -e "${RED}$FAILED smoke check(s) failed${NC}"
+    exit 1
+fi
+echo -e "${GREEN}All smoke checks passed${NC}"
@@ -0,0 +1,14 @@
+#!/bin/bash
+# Runs the backend from the AppCDS layout produced by: mvn -Pcds package
+# The class path must match the training run exactly, so run from target/cds.
+cd "$(dirname "$0")/target/cds" || exit 1
+
+if [ ! -f application.jsa ]; then
+    echo "application.jsa not found - build it with: mvn -Pcds package"
+    exit 1
+fi
+
+exec java -XX:SharedArchiveFile=application.jsa \
+    -Dspring.profiles.active=${SPRING_PROFILES_ACTIVE:-fast-startup} \
+    -cp marketplace-backend.jar:'lib/*' \
+    com.marketplace.MarketplaceApplication "$@"
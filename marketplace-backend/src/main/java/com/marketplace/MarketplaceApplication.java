@@ -1,13 +1,27 @@
 package com.marketplace;
 
+import com.marketplace.config.NativeHints;
+import com.marketplace.config.SeedCommand;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.Arrays;
 
 @SpringBootApplication
-@EnableMongoRepositories
+@EnableScheduling
+@ImportRuntimeHints(NativeHints.class)
 public class MarketplaceApplication {
     public static void main(String[] args) {
+        if (Arrays.asList(args).contains(SeedCommand.ARG)) {
+            seed(args);
+            return;
+        }
+        
         // Log PORT environment variable for debugging Railway deployment
         String port = System.getenv("PORT");
         String serverPort = System.getProperty("server.port");
@@ -19,4 +33,22 @@ public class MarketplaceApplication {
         
         SpringApplication.run(MarketplaceApplication.class, args);
     }
+    
+    // Seeds without a web server and exits; the runners' own boot-time seeding is switched off
+    private static void seed(String[] args) {
+        SpringApplication application = new SpringApplication(MarketplaceApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        String[] seedArgs = Arrays.copyOf(args, args.length + 1);
+        seedArgs[args.length] = "--seed.on-startup=false";
+        ConfigurableApplicationContext context = application.run(seedArgs);
+        int exitCode = 0;
+        try {
+            context.getBean(SeedCommand.class).run();
+        } catch (Exception e) {
+            LoggerFactory.getLogger(MarketplaceApplication.class).error("Seeding failed", e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
 }
@@ -0,0 +1,134 @@
+package com.marketplace.config;
+
+import com.marketplace.util.AdaptiveLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Load shedding in front of the controllers. Each request class (read, write, auth, admin) has an
+// adaptive in-flight limit, so when Mongo slows down the excess is refused with a fast 503 instead of
+// every Tomcat thread queueing behind it. Classes are limited separately, so a burst of browse
+// traffic can't starve logins or admin work; actuator endpoints are never limited.
+@Slf4j
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final ConcurrencyLimitProperties properties;
+    private final List<LimitedClass> classes = new ArrayList<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        properties.getClasses().forEach((name, spec) -> {
+            LimitedClass limited = new LimitedClass(name, spec, meterRegistry);
+            classes.add(limited);
+            Gauge.builder("concurrency.limit", limited.limiter, AdaptiveLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("class", name)
+                    .register(meterRegistry);
+            Gauge.builder("concurrency.inflight", limited.limiter, AdaptiveLimiter::getInFlight)
+                    .description("Requests currently holding a concurrency permit")
+                    .tag("class", name)
+                    .register(meterRegistry);
+            Gauge.builder("concurrency.rtt.long", limited.limiter, AdaptiveLimiter::getLongRttMillis)
+                    .description("Long-term average request time the limit is measured against")
+                    .baseUnit("milliseconds")
+                    .tag("class", name)
+                    .register(meterRegistry);
+            Gauge.builder("concurrency.rtt.short", limited.limiter, AdaptiveLimiter::getShortRttMillis)
+                    .description("Recent average request time")
+                    .baseUnit("milliseconds")
+                    .tag("class", name)
+                    .register(meterRegistry);
+        });
+        log.info("Concurrency limiting {} request classes: {}", classes.size(), properties.getClasses().keySet());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.isEnabled() || classes.isEmpty() || "OPTIONS".equals(request.getMethod())) {
+            return true;
+        }
+        String path = path(request);
+        return properties.getBypass().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        LimitedClass limited = match(request);
+        if (limited == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!limited.limiter.tryAcquire()) {
+            limited.rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", String.valueOf(properties.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Server is busy, please retry shortly\"}");
+            return;
+        }
+
+        long start = System.nanoTime();
+        int status = HttpStatus.INTERNAL_SERVER_ERROR.value();
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            // Client errors (unauthenticated, forbidden, invalid) are answered without the backend
+            // work the limit protects; sampling them would drag the latency baseline down
+            if (status >= 400 && status < 500) {
+                limited.limiter.ignore();
+            } else {
+                limited.limiter.release(System.nanoTime() - start, status >= 500);
+            }
+        }
+    }
+
+    private LimitedClass match(HttpServletRequest request) {
+        String path = path(request);
+        for (LimitedClass limited : classes) {
+            if (limited.method != null && !limited.method.equalsIgnoreCase(request.getMethod())) continue;
+            for (String pattern : limited.paths) {
+                if (pathMatcher.match(pattern, path)) return limited;
+            }
+        }
+        return null;
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static class LimitedClass {
+        private final List<String> paths;
+        private final String method;
+        private final AdaptiveLimiter limiter;
+        private final Counter rejected;
+
+        LimitedClass(String name, ConcurrencyLimitProperties.RequestClass spec, MeterRegistry meterRegistry) {
+            this.paths = spec.getPaths();
+            this.method = spec.getMethod();
+            this.limiter = new AdaptiveLimiter(spec.getInitialLimit(), spec.getMinLimit(), spec.getMaxLimit());
+            this.rejected = Counter.builder("concurrency.limit.rejected")
+                    .description("Requests shed because their class was at its concurrency limit")
+                    .tag("class", name)
+                    .register(meterRegistry);
+        }
+    }
+}
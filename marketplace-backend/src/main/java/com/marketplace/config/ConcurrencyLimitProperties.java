@@ -0,0 +1,27 @@
+package com.marketplace.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "concurrency-limit")
+public class ConcurrencyLimitProperties {
+    private boolean enabled = true;
+    private List<String> bypass = List.of("/actuator/**");
+    private int retryAfterSeconds = 1;
+    private Map<String, RequestClass> classes = new LinkedHashMap<>(); // first match wins
+    
+    @Data
+    public static class RequestClass {
+        private List<String> paths = List.of();
+        private String method; // any method when unset
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+    }
+}
@@ -2,9 +2,10 @@ package com.marketplace.config;
 
 import com.marketplace.model.User;
 import com.marketplace.repository.UserRepository;
+import com.marketplace.service.CredentialService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.context.annotation.Bean;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -15,13 +16,22 @@ import java.time.Instant;
 public class DataInitializer implements CommandLineRunner {
     
     private final UserRepository userRepository;
+    private final CredentialService credentialService;
+    
+    @Value("${seed.on-startup:true}")
+    private boolean seedOnStartup;
     
     @Override
     public void run(String... args) {
+        if (seedOnStartup) {
+            ensureAdminUser();
+        }
+    }
+    
+    public void ensureAdminUser() {
         // Create admin user if not exists
-        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-        
         if (!userRepository.existsByEmail("admin@vendorhub.com")) {
+            BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
             User admin = new User();
             admin.setName("Admin");
             admin.setEmail("admin@vendorhub.com");
@@ -31,7 +41,8 @@ public class DataInitializer implements CommandLineRunner {
             admin.setCreatedAt(Instant.now());
             admin.setUpdatedAt(Instant.now());
             
-            userRepository.save(admin);
+            User saved = userRepository.save(admin);
+            credentialService.link(CredentialService.USER, saved.getId(), saved.getEmail(), saved.getRole(), saved.getPassword());
             System.out.println("============================================");
             System.out.println("✅ Admin user created successfully!");
             System.out.println("   Email: admin@vendorhub.com");
@@ -5,6 +5,7 @@ import com.marketplace.model.vendor.Vendor;
 import com.marketplace.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
@@ -26,8 +27,17 @@ public class DataSeeder implements CommandLineRunner {
     private final SubscriptionRepository subscriptionRepository;
     private final CollaborationRepository collaborationRepository;
 
+    @Value("${seed.on-startup:true}")
+    private boolean seedOnStartup;
+
     @Override
     public void run(String... args) {
+        if (seedOnStartup) {
+            seed();
+        }
+    }
+
+    public void seed() {
         seedCategories();
         seedQuoteRequests();
         seedReviews();
@@ -37,16 +47,6 @@ public class DataSeeder implements CommandLineRunner {
         seedCollaborations();
         
         log.info("✅ Database seeding completed!");
-        log.info("📊 Total Collections: 9");
-        log.info("   - vendors: Check existing data");
-        log.info("   - users: Check existing data");
-        log.info("   - categories: {}", categoryRepository.count());
-        log.info("   - quote_requests: {}", quoteRequestRepository.count());
-        log.info("   - reviews: {}", reviewRepository.count());
-        log.info("   - page_views: {}", pageViewRepository.count());
-        log.info("   - notifications: {}", notificationRepository.count());
-        log.info("   - subscriptions: {}", subscriptionRepository.count());
-        log.info("   - collaborations: {}", collaborationRepository.count());
     }
 
     private void seedCategories() {
@@ -0,0 +1,280 @@
+package com.marketplace.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeospatialIndex;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Spring Boot 3 leaves auto-index-creation off, so the @Indexed/@CompoundIndex annotations on the models
+// are never built. This catalog is the source of truth for what gets created at startup.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndexBootstrapper {
+
+    public enum State { PENDING, BUILDING, READY, DEGRADED }
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${indexes.bootstrap.enabled:true}")
+    private boolean enabled;
+
+    // Mongo may still be coming up when we start; keep trying rather than staying DEGRADED until a restart
+    @Value("${indexes.bootstrap.retry-initial:PT5S}")
+    private Duration retryInitial;
+
+    @Value("${indexes.bootstrap.retry-max:PT5M}")
+    private Duration retryMax;
+
+    private volatile State state = State.PENDING;
+    private volatile List<String> missingCritical = List.of();
+    private volatile List<String> missing = List.of();
+    private volatile Map<String, List<String>> unexpected = Map.of();
+
+    public static List<IndexSpec> catalog() {
+        List<IndexSpec> specs = new ArrayList<>();
+
+        specs.add(critical("users", new Index().on("email", Sort.Direction.ASC).unique().named("email")));
+        specs.add(optional("users", new Index().on("createdAt", Sort.Direction.ASC).named("created_idx")));
+
+        specs.add(critical("vendors", new Index().on("slug", Sort.Direction.ASC).unique().named("slug_idx")));
+        specs.add(critical("vendors", new Index().on("email", Sort.Direction.ASC).unique().named("email")));
+        specs.add(optional("vendors", new Index().on("storeName", Sort.Direction.ASC).unique().named("storeName")));
+        specs.add(optional("vendors", new GeospatialIndex("location").typed(GeoSpatialIndexType.GEO_2DSPHERE).named("geo_idx")));
+        specs.add(optional("vendors", new Index().on("status", Sort.Direction.ASC).named("status_idx")));
+        specs.add(optional("vendors", new Index().on("city", Sort.Direction.ASC).on("status", Sort.Direction.ASC).named("city_status_idx")));
+        specs.add(optional("vendors", new Index().on("vendorType", Sort.Direction.ASC).on("status", Sort.Direction.ASC).named("type_status_idx")));
+        specs.add(optional("vendors", new Index().on("category", Sort.Direction.ASC).on("status", Sort.Direction.ASC).named("category_status_idx")));
+        specs.add(optional("vendors", new Index().on("createdAt", Sort.Direction.ASC).named("created_idx")));
+        specs.add(optional("vendors", new Index().on("promotedUntil", Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where("promoted").is(true))).named("promoted_until_idx")));
+
+        specs.add(critical("quote_requests", new Index().on("vendorSlug", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC).named("vendor_created_idx")));
+        specs.add(optional("quote_requests", new Index().on("customerEmail", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC).named("customer_created_idx")));
+        specs.add(optional("quote_requests", new Index().on("updatedAt", Sort.Direction.ASC).named("updated_idx")));
+        specs.add(optional("quote_requests", new Index().on("createdAt", Sort.Direction.ASC).named("created_idx")));
+        // Multi-vendor leads rely on this to turn repeat submissions into duplicate-key errors
+        specs.add(critical("quote_requests", new Index().on("dedupeKey", Sort.Direction.ASC).unique()
+                .partial(PartialIndexFilter.of(Criteria.where("dedupeKey").exists(true))).named("dedupe_idx")));
+
+        specs.add(critical("reviews", new Index().on("vendorSlug", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC).named("vendor_created_idx")));
+        specs.add(optional("reviews", new Index().on("vendorSlug", Sort.Direction.ASC).on("rating", Sort.Direction.DESC).on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC).named("vendor_rating_created_idx")));
+        specs.add(optional("reviews", new Index().on("vendorSlug", Sort.Direction.ASC).on("rating", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC).named("vendor_rating_asc_created_idx")));
+        specs.add(optional("reviews", new Index().on("createdAt", Sort.Direction.ASC).named("created_idx")));
+        // Only flagged reviews are indexed, so the moderation queue stays small however many reviews exist
+        specs.add(optional("reviews", new Index().on("createdAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where("flagged").is(true))).named("flagged_queue_idx")));
+        specs.add(optional("reviews", new Index().on("vendorSlug", Sort.Direction.ASC).on("verifiedPurchase", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC).named("vendor_verified_created_idx")));
+
+        specs.add(critical("page_views", new Index().on("vendorSlug", Sort.Direction.ASC).on("viewedAt", Sort.Direction.DESC).named("vendor_viewed_idx")));
+        specs.add(optional("page_views", new Index().on("viewedAt", Sort.Direction.ASC).named("viewed_idx")));
+
+        specs.add(optional("notifications", new Index().on("userId", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC).named("user_created_idx")));
+        specs.add(optional("notifications", new Index().on("userId", Sort.Direction.ASC).on("read", Sort.Direction.ASC).named("user_read_idx")));
+
+        specs.add(optional("customer_profiles", new Index().on("email", Sort.Direction.ASC).named("email_idx")));
+        specs.add(optional("categories", new Index().on("slug", Sort.Direction.ASC).named("slug_idx")));
+        specs.add(optional("subscriptions", new Index().on("vendorSlug", Sort.Direction.ASC).named("vendor_idx")));
+        specs.add(optional("subscriptions", new Index().on("startDate", Sort.Direction.ASC).named("start_idx")));
+        specs.add(optional("subscriptions", new Index().on("status", Sort.Direction.ASC).on("endDate", Sort.Direction.ASC).named("status_end_idx")));
+        specs.add(optional("collaborations", new Index().on("status", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC).named("status_created_idx")));
+        // Keys only need to outlive client retries; the TTL monitor clears them once expiresAt passes
+        specs.add(optional("idempotency_keys", new Index().on("expiresAt", Sort.Direction.ASC).expire(0).named("expires_ttl_idx")));
+
+        return specs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            log.info("Index bootstrap disabled");
+            state = State.READY;
+            return;
+        }
+        Thread worker = new Thread(this::bootstrapWithRetry, "index-bootstrap");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void bootstrapWithRetry() {
+        Duration backoff = retryInitial;
+        bootstrap();
+        while (state == State.DEGRADED) {
+            log.warn("Index bootstrap degraded, retrying in {}", backoff);
+            try {
+                Thread.sleep(backoff.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            bootstrap();
+            backoff = backoff.multipliedBy(2).compareTo(retryMax) > 0 ? retryMax : backoff.multipliedBy(2);
+        }
+    }
+
+    public void bootstrap() {
+        List<IndexSpec> specs = catalog();
+        try {
+            List<IndexSpec> absent = verify(specs);
+            if (!absent.isEmpty()) {
+                state = State.BUILDING;
+                for (IndexSpec spec : absent) {
+                    build(spec);
+                }
+                verify(specs);
+            }
+            state = missingCritical.isEmpty() ? State.READY : State.DEGRADED;
+        } catch (Exception e) {
+            log.error("Index bootstrap failed: {}", e.getMessage());
+            state = State.DEGRADED;
+        }
+
+        if (!missing.isEmpty()) {
+            log.warn("Missing indexes after bootstrap: {}", missing);
+        }
+        unexpected.forEach((collection, names) ->
+                log.warn("Indexes on {} not declared in the catalog: {}", collection, names));
+        log.info("Index bootstrap finished: {}", state);
+    }
+
+    private List<IndexSpec> verify(List<IndexSpec> specs) {
+        Map<String, Map<String, String>> existing = new HashMap<>();
+        for (IndexSpec spec : specs) {
+            existing.computeIfAbsent(spec.collection(), this::existingIndexes);
+        }
+
+        List<IndexSpec> absent = new ArrayList<>();
+        List<String> absentNames = new ArrayList<>();
+        List<String> absentCritical = new ArrayList<>();
+        Map<String, List<String>> declaredNames = new HashMap<>();
+
+        for (IndexSpec spec : specs) {
+            Map<String, String> onCollection = existing.get(spec.collection());
+            String keys = keySignature(spec.definition().getIndexKeys());
+            declaredNames.computeIfAbsent(spec.collection(), c -> new ArrayList<>()).add(spec.name());
+
+            if (onCollection.containsKey(spec.name())) {
+                if (!keys.equals(onCollection.get(spec.name()))) {
+                    log.warn("Index {}.{} has keys {} but catalog declares {}",
+                            spec.collection(), spec.name(), onCollection.get(spec.name()), keys);
+                }
+                continue;
+            }
+            String sameKeys = onCollection.entrySet().stream()
+                    .filter(e -> e.getValue().equals(keys))
+                    .map(Map.Entry::getKey)
+                    .findFirst()
+                    .orElse(null);
+            if (sameKeys != null) {
+                log.info("Index {}.{} exists as '{}'", spec.collection(), spec.name(), sameKeys);
+                declaredNames.get(spec.collection()).add(sameKeys);
+                continue;
+            }
+
+            absent.add(spec);
+            absentNames.add(spec.qualifiedName());
+            if (spec.critical()) {
+                absentCritical.add(spec.qualifiedName());
+            }
+        }
+
+        Map<String, List<String>> extra = new LinkedHashMap<>();
+        existing.forEach((collection, indexes) -> {
+            List<String> names = new ArrayList<>(indexes.keySet());
+            names.remove("_id_");
+            names.removeAll(declaredNames.getOrDefault(collection, List.of()));
+            if (!names.isEmpty()) {
+                extra.put(collection, names);
+            }
+        });
+
+        missing = Collections.unmodifiableList(absentNames);
+        missingCritical = Collections.unmodifiableList(absentCritical);
+        unexpected = Collections.unmodifiableMap(extra);
+        return absent;
+    }
+
+    private void build(IndexSpec spec) {
+        long start = System.currentTimeMillis();
+        try {
+            mongoTemplate.indexOps(spec.collection()).ensureIndex(spec.definition());
+            log.info("Built index {} in {} ms", spec.qualifiedName(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build index {}: {}", spec.qualifiedName(), e.getMessage());
+        }
+    }
+
+    private Map<String, String> existingIndexes(String collection) {
+        Map<String, String> indexes = new LinkedHashMap<>();
+        if (!mongoTemplate.collectionExists(collection)) {
+            return indexes;
+        }
+        for (Document index : mongoTemplate.getCollection(collection).listIndexes()) {
+            indexes.put(index.getString("name"), keySignature(index.get("key", Document.class)));
+        }
+        return indexes;
+    }
+
+    private static String keySignature(Document keys) {
+        StringBuilder signature = new StringBuilder();
+        keys.forEach((field, direction) -> {
+            if (signature.length() > 0) signature.append(',');
+            signature.append(field).append(':')
+                    .append(direction instanceof Number n ? String.valueOf(n.intValue()) : String.valueOf(direction));
+        });
+        return signature.toString();
+    }
+
+    private static IndexSpec critical(String collection, IndexDefinition definition) {
+        return new IndexSpec(collection, definition, true);
+    }
+
+    private static IndexSpec optional(String collection, IndexDefinition definition) {
+        return new IndexSpec(collection, definition, false);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public List<String> getMissingCritical() {
+        return missingCritical;
+    }
+
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    public Map<String, List<String>> getUnexpected() {
+        return unexpected;
+    }
+
+    public record IndexSpec(String collection, IndexDefinition definition, boolean critical) {
+        public String name() {
+            return definition.getIndexOptions().getString("name");
+        }
+
+        public String qualifiedName() {
+            return collection + "." + name();
+        }
+    }
+}
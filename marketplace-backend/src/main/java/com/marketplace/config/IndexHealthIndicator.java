@@ -0,0 +1,31 @@
+package com.marketplace.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+@Component("indexes")
+@RequiredArgsConstructor
+public class IndexHealthIndicator implements HealthIndicator {
+
+    private final IndexBootstrapper indexBootstrapper;
+
+    @Override
+    public Health health() {
+        IndexBootstrapper.State state = indexBootstrapper.getState();
+        Health.Builder builder = switch (state) {
+            case READY -> Health.up();
+            case PENDING -> Health.outOfService();
+            // Keep serving while secondary indexes build; only missing critical ones take the node out of rotation
+            case BUILDING -> indexBootstrapper.getMissingCritical().isEmpty() ? Health.up() : Health.outOfService();
+            case DEGRADED -> Health.down();
+        };
+        return builder
+                .withDetail("state", state)
+                .withDetail("missingCritical", indexBootstrapper.getMissingCritical())
+                .withDetail("missing", indexBootstrapper.getMissing())
+                .withDetail("unexpected", indexBootstrapper.getUnexpected())
+                .build();
+    }
+}
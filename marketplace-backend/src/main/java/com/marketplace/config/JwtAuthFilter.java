@@ -1,5 +1,6 @@
 package com.marketplace.config;
 
+import com.marketplace.service.ActivityTracker;
 import com.marketplace.service.JwtService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -20,6 +21,7 @@ import java.util.Collections;
 public class JwtAuthFilter extends OncePerRequestFilter {
     
     private final JwtService jwtService;
+    private final ActivityTracker activityTracker;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -39,6 +41,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 );
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                activityTracker.record(userId);
             }
         }
         
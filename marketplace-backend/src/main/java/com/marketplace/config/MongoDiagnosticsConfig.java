@@ -0,0 +1,14 @@
+package com.marketplace.config;
+
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MongoDiagnosticsConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer queryDiagnosticsCustomizer(QueryDiagnosticsListener listener) {
+        return settings -> settings.addCommandListener(listener);
+    }
+}
@@ -0,0 +1,64 @@
+package com.marketplace.config;
+
+import com.marketplace.repository.SecondaryReads;
+import com.mongodb.ReadPreference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Two templates over the one client. The primary template (the default everywhere) keeps
+// read-your-writes for profile editing, auth and anything that reads back what it just wrote. The
+// secondary template sends reads to a secondary no more than max-staleness behind, for browse and
+// dashboard queries that tolerate a little lag; repositories marked @SecondaryReads are bound to it.
+// Against a standalone server both behave the same.
+@Slf4j
+@Configuration
+public class MongoReadRoutingConfig {
+
+    public static final String SECONDARY = "secondaryMongoTemplate";
+
+    @Bean
+    @Primary
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory factory, MongoConverter converter) {
+        return new MongoTemplate(factory, converter);
+    }
+
+    @Bean(SECONDARY)
+    public MongoTemplate secondaryMongoTemplate(MongoDatabaseFactory factory,
+                                                MongoConverter converter,
+                                                @Value("${mongo.read-routing.secondary-reads:true}") boolean secondaryReads,
+                                                @Value("${mongo.read-routing.max-staleness:PT90S}") Duration maxStaleness) {
+        MongoTemplate template = new MongoTemplate(factory, converter);
+        if (secondaryReads) {
+            // The server rejects bounds under 90 seconds
+            long seconds = Math.max(90, maxStaleness.toSeconds());
+            template.setReadPreference(ReadPreference.secondaryPreferred(seconds, TimeUnit.SECONDS));
+            log.info("Browse and dashboard reads prefer secondaries up to {}s behind", seconds);
+        }
+        return template;
+    }
+
+    @Configuration
+    @EnableMongoRepositories(basePackages = "com.marketplace.repository",
+            excludeFilters = @ComponentScan.Filter(type = FilterType.ANNOTATION, classes = SecondaryReads.class))
+    static class PrimaryRepositories {
+    }
+
+    @Configuration
+    @EnableMongoRepositories(basePackages = "com.marketplace.repository",
+            mongoTemplateRef = SECONDARY,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ANNOTATION, classes = SecondaryReads.class))
+    static class SecondaryRepositories {
+    }
+}
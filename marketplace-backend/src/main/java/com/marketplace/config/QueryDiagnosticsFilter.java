@@ -0,0 +1,62 @@
+package com.marketplace.config;
+
+import com.marketplace.util.RequestQueryStats;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryDiagnosticsFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    @Value("${diagnostics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${diagnostics.request-db-calls-threshold:10}")
+    private int callsThreshold;
+
+    @Value("${diagnostics.request-db-time-ms:250}")
+    private long dbTimeThresholdMs;
+
+    @Value("${diagnostics.top-statements:3}")
+    private int topStatements;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestQueryStats stats = RequestQueryStats.begin(topStatements);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryStats.end();
+
+            // Responses with a body already got the header from ServerTimingAdvice
+            if (!response.isCommitted() && stats.getCalls() > 0) {
+                response.setHeader(SERVER_TIMING, stats.toServerTiming());
+            }
+
+            if (stats.getCalls() >= callsThreshold || stats.getTotalMillis() >= dbTimeThresholdMs) {
+                log.warn("{} {} issued {} Mongo calls in {} ms, slowest: {}",
+                        request.getMethod(), request.getRequestURI(), stats.getCalls(),
+                        Math.round(stats.getTotalMillis()), stats.getSlowest());
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.marketplace.config;
+
+import com.marketplace.util.RequestQueryStats;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class QueryDiagnosticsListener implements CommandListener {
+
+    private static final Set<String> EXPLAINABLE = Set.of("find", "aggregate", "count", "distinct");
+    private static final Set<String> SESSION_FIELDS = Set.of(
+            "$db", "lsid", "$clusterTime", "$readPreference", "txnNumber", "autocommit", "startTransaction",
+            "apiVersion", "apiStrict", "apiDeprecationErrors");
+    private static final int MAX_EXPLAINED_SHAPES = 1000;
+
+    private final ObjectProvider<MongoTemplate> mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<Integer, Started> inFlight = new ConcurrentHashMap<>();
+    private final Set<String> explainedShapes = ConcurrentHashMap.newKeySet();
+    private final ExecutorService explainExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "query-explain");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${diagnostics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${diagnostics.slow-query-ms:100}")
+    private long slowQueryMs;
+
+    @Value("${diagnostics.explain-slow-queries:false}")
+    private boolean explainSlowQueries;
+
+    public QueryDiagnosticsListener(ObjectProvider<MongoTemplate> mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!enabled) return;
+
+        String command = event.getCommandName();
+        BsonDocument body = event.getCommand();
+        String collection = collectionOf(command, body);
+        if (collection == null) return;
+
+        BsonDocument explainable = explainSlowQueries && EXPLAINABLE.contains(command) ? stripSession(body) : null;
+        inFlight.put(event.getRequestId(), new Started(collection, filterShape(command, body), explainable));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        complete(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        complete(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void complete(int requestId, String command, long nanos) {
+        Started started = inFlight.remove(requestId);
+        if (started == null) return;
+
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.record(started.collection(), command, started.filterShape(), nanos);
+        }
+
+        if (TimeUnit.NANOSECONDS.toMillis(nanos) >= slowQueryMs) {
+            meterRegistry.counter("mongodb.slow.queries", "collection", started.collection(), "command", command)
+                    .increment();
+            log.warn("Slow Mongo command {}.{} {} took {} ms",
+                    started.collection(), command, started.filterShape(), TimeUnit.NANOSECONDS.toMillis(nanos));
+
+            if (started.explainable() != null) {
+                scheduleExplain(started, command);
+            }
+        }
+    }
+
+    private void scheduleExplain(Started started, String command) {
+        String shapeKey = started.collection() + "." + command + started.filterShape();
+        if (explainedShapes.size() > MAX_EXPLAINED_SHAPES) {
+            explainedShapes.clear();
+        }
+        if (!explainedShapes.add(shapeKey)) return;
+
+        explainExecutor.execute(() -> {
+            try {
+                Document plan = mongoTemplate.getObject().getDb().runCommand(
+                        new BsonDocument("explain", started.explainable())
+                                .append("verbosity", new BsonString("queryPlanner")));
+                if (containsStage(plan, "COLLSCAN")) {
+                    meterRegistry.counter("mongodb.collection.scans", "collection", started.collection()).increment();
+                    log.warn("Collection scan detected for {}.{} {}", started.collection(), command, started.filterShape());
+                }
+            } catch (Exception e) {
+                log.debug("Explain failed for {}: {}", shapeKey, e.getMessage());
+            }
+        });
+    }
+
+    private static boolean containsStage(Object node, String stage) {
+        if (node instanceof Map<?, ?> map) {
+            if (stage.equals(map.get("stage"))) return true;
+            for (Object value : map.values()) {
+                if (containsStage(value, stage)) return true;
+            }
+        } else if (node instanceof Iterable<?> list) {
+            for (Object value : list) {
+                if (containsStage(value, stage)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static String collectionOf(String command, BsonDocument body) {
+        if ("getMore".equals(command)) {
+            BsonValue collection = body.get("collection");
+            return collection != null && collection.isString() ? collection.asString().getValue() : null;
+        }
+        BsonValue value = body.get(command);
+        return value != null && value.isString() ? value.asString().getValue() : null;
+    }
+
+    private static String filterShape(String command, BsonDocument body) {
+        BsonValue filter = switch (command) {
+            case "find" -> body.get("filter");
+            case "count", "findAndModify", "distinct" -> body.get("query");
+            case "update" -> firstOf(body.get("updates"), "q");
+            case "delete" -> firstOf(body.get("deletes"), "q");
+            case "aggregate" -> firstMatch(body.get("pipeline"));
+            default -> null;
+        };
+        return filter == null ? "{}" : shapeOf(filter);
+    }
+
+    private static BsonValue firstOf(BsonValue statements, String field) {
+        if (statements == null || !statements.isArray() || statements.asArray().isEmpty()) return null;
+        BsonValue first = statements.asArray().get(0);
+        return first.isDocument() ? first.asDocument().get(field) : null;
+    }
+
+    private static BsonValue firstMatch(BsonValue pipeline) {
+        if (pipeline == null || !pipeline.isArray()) return null;
+        for (BsonValue stage : pipeline.asArray()) {
+            if (stage.isDocument() && stage.asDocument().containsKey("$match")) {
+                return stage.asDocument().get("$match");
+            }
+        }
+        return null;
+    }
+
+    private static String shapeOf(BsonValue value) {
+        if (value.isDocument()) {
+            StringBuilder shape = new StringBuilder("{");
+            for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                if (shape.length() > 1) shape.append(", ");
+                shape.append(entry.getKey()).append(": ").append(shapeOf(entry.getValue()));
+            }
+            return shape.append('}').toString();
+        }
+        if (value.isArray()) {
+            BsonArray array = value.asArray();
+            return array.isEmpty() || !array.get(0).isDocument() ? "[?]" : "[" + shapeOf(array.get(0)) + "]";
+        }
+        return "?";
+    }
+
+    private static BsonDocument stripSession(BsonDocument body) {
+        BsonDocument copy = body.clone();
+        SESSION_FIELDS.forEach(copy::remove);
+        return copy;
+    }
+
+    private record Started(String collection, String filterShape, BsonDocument explainable) {
+    }
+}
@@ -0,0 +1,272 @@
+package com.marketplace.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marketplace.util.ClientIp;
+import com.marketplace.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Per-client limits for the public write endpoints (quotes, auth), which each cost a Mongo insert or
+// a bcrypt check. Buckets are keyed by route and client IP, and by route and email for routes that
+// also limit per account. They live in a bounded Caffeine map (striped, lock-free reads) that drops
+// buckets idle past the timeout, and each bucket is a single CAS-updated long.
+@Slf4j
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, TokenBucket> buckets;
+    private final List<CompiledRoute> routes = new ArrayList<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+        properties.getRoutes().forEach((name, route) -> routes.add(new CompiledRoute(name, route)));
+        meterRegistry.gauge("rate.limit.buckets", buckets, Cache::estimatedSize);
+        log.info("Rate limiting {} routes: {}", routes.size(), properties.getRoutes().keySet());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || routes.isEmpty() || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CompiledRoute route = match(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        long waitNanos = 0;
+        if (route.perIp != null) {
+            String ip = ClientIp.of(request, properties.isTrustForwardedFor(), properties.getTrustedProxies());
+            waitNanos = acquire(route.name + "|ip|" + ip, route.perIp, now);
+        }
+        HttpServletRequest forwarded = request;
+        if (waitNanos == 0 && route.perEmail != null) {
+            CachedBodyRequest cached = new CachedBodyRequest(request, properties.getMaxBodyBytes());
+            forwarded = cached;
+            String email = cached.isComplete() ? email(cached.body()) : null;
+            if (email != null) {
+                waitNanos = acquire(route.name + "|email|" + email, route.perEmail, now);
+            }
+        }
+
+        if (waitNanos > 0) {
+            reject(response, route.name, waitNanos);
+            return;
+        }
+        filterChain.doFilter(forwarded, response);
+    }
+
+    private long acquire(String key, BucketSpec spec, long now) {
+        return buckets.get(key, k -> new TokenBucket(spec.intervalNanos, spec.capacity)).tryAcquire(now);
+    }
+
+    private void reject(HttpServletResponse response, String route, long waitNanos) throws IOException {
+        Counter.builder("rate.limit.rejected")
+                .description("Requests refused by the rate limiter")
+                .tag("route", route)
+                .register(meterRegistry)
+                .increment();
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many requests, retry in " + retryAfter + " seconds\"}");
+    }
+
+    private CompiledRoute match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (CompiledRoute route : routes) {
+            if (route.method != null && !route.method.equalsIgnoreCase(request.getMethod())) continue;
+            for (String pattern : route.paths) {
+                if (pathMatcher.match(pattern, path)) return route;
+            }
+        }
+        return null;
+    }
+
+    private String email(byte[] body) {
+        if (body.length == 0) return null;
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            for (String field : properties.getEmailFields()) {
+                JsonNode value = json.get(field);
+                if (value != null && value.isTextual() && !value.asText().isBlank()) {
+                    return value.asText().trim().toLowerCase();
+                }
+            }
+        } catch (IOException e) {
+            // Not JSON; the controller will reject it
+        }
+        return null;
+    }
+
+    private record BucketSpec(long intervalNanos, int capacity) {
+        static BucketSpec of(RateLimitProperties.Limit limit) {
+            if (limit == null || limit.getRequests() <= 0) return null;
+            long interval = Math.max(1, limit.getPeriod().toNanos() / limit.getRequests());
+            return new BucketSpec(interval, limit.getBurst() > 0 ? limit.getBurst() : limit.getRequests());
+        }
+    }
+
+    private static class CompiledRoute {
+        private final String name;
+        private final List<String> paths;
+        private final String method;
+        private final BucketSpec perIp;
+        private final BucketSpec perEmail;
+
+        CompiledRoute(String name, RateLimitProperties.Route route) {
+            this.name = name;
+            this.paths = route.getPaths();
+            this.method = route.getMethod();
+            this.perIp = BucketSpec.of(route.getPerIp());
+            this.perEmail = BucketSpec.of(route.getPerEmail());
+        }
+    }
+
+    // Reads up to maxBytes of the body so the email can be checked, then replays it downstream
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] head;
+        private final ServletInputStream rest;
+        private final boolean complete;
+
+        CachedBodyRequest(HttpServletRequest request, int maxBytes) throws IOException {
+            super(request);
+            ServletInputStream in = request.getInputStream();
+            this.head = in.readNBytes(maxBytes + 1);
+            this.complete = head.length <= maxBytes;
+            this.rest = in;
+        }
+
+        boolean isComplete() {
+            return complete;
+        }
+
+        byte[] body() {
+            return head;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return new ReplayInputStream(new ByteArrayInputStream(head), complete ? null : rest);
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+
+    // The buffered head of the body, then whatever the container still holds
+    private static class ReplayInputStream extends ServletInputStream {
+        private final ByteArrayInputStream head;
+        private final ServletInputStream rest; // null when the whole body was buffered
+
+        ReplayInputStream(ByteArrayInputStream head, ServletInputStream rest) {
+            this.head = head;
+            this.rest = rest;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = head.read();
+            return b >= 0 || rest == null ? b : rest.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            int n = head.read(buffer, off, len);
+            return n >= 0 || rest == null ? n : rest.read(buffer, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return head.available() == 0 && (rest == null || rest.isFinished());
+        }
+
+        @Override
+        public boolean isReady() {
+            return head.available() > 0 || rest == null || rest.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            if (rest != null) {
+                // The container drives the callbacks; buffered bytes are read ahead of its data
+                rest.setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        listener.onDataAvailable();
+                    }
+
+                    @Override
+                    public void onAllDataRead() throws IOException {
+                        if (head.available() > 0) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        listener.onError(t);
+                    }
+                });
+                return;
+            }
+            // Everything is in memory already, so it is all available at once
+            try {
+                if (head.available() > 0) {
+                    listener.onDataAvailable();
+                }
+                listener.onAllDataRead();
+            } catch (IOException e) {
+                listener.onError(e);
+            }
+        }
+    }
+}
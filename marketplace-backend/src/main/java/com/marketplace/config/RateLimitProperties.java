@@ -0,0 +1,38 @@
+package com.marketplace.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private long maxBuckets = 200_000;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private boolean trustForwardedFor = false; // only behind a proxy that sets X-Forwarded-For
+    private int trustedProxies = 1; // proxies in front of us that each append to X-Forwarded-For
+    private int maxBodyBytes = 16_384; // larger bodies are not inspected for an email
+    private List<String> emailFields = List.of("email", "customerEmail");
+    private Map<String, Route> routes = new LinkedHashMap<>();
+    
+    @Data
+    public static class Route {
+        private List<String> paths = List.of();
+        private String method; // any method when unset
+        private Limit perIp;
+        private Limit perEmail;
+    }
+    
+    @Data
+    public static class Limit {
+        private int requests;
+        private Duration period = Duration.ofMinutes(1);
+        private int burst; // defaults to requests
+    }
+}
@@ -24,6 +24,8 @@ import java.util.List;
 public class SecurityConfig {
     
     private final JwtAuthFilter jwtAuthFilter;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
+    private final RateLimitFilter rateLimitFilter;
     
     @Value("${cors.allowed-origins}")
     private String allowedOrigins;
@@ -37,11 +39,13 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 // Allow all OPTIONS requests (CORS preflight)
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/categories/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/explore/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/vendors/**").permitAll()
-                .requestMatchers(HttpMethod.POST, "/api/quotes", "/api/quotes/request").permitAll()
+                .requestMatchers(HttpMethod.POST, "/api/quotes", "/api/quotes/request", "/api/quotes/leads").permitAll()
                 .requestMatchers("/api/quotes/customer/**").authenticated()
                 .requestMatchers("/api/quotes/vendor/**").authenticated()
                 .requestMatchers("/api/customer/**").authenticated()
@@ -51,6 +55,10 @@ public class SecurityConfig {
                 .requestMatchers("/api/vendor/**").hasRole("VENDOR")
                 .anyRequest().authenticated()
             )
+            // Throttled and shed requests are refused before any token parsing or controller work.
+            // Throttling comes first so a flood of 429s never holds a concurrency permit.
+            .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(concurrencyLimitFilter, UsernamePasswordAuthenticationFilter.class)
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
         
         return http.build();
@@ -85,9 +93,10 @@ public class SecurityConfig {
             "Accept", 
             "X-Requested-With",
             "Access-Control-Request-Method",
-            "Access-Control-Request-Headers"
+            "Access-Control-Request-Headers",
+            "Idempotency-Key"
         ));
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Server-Timing", "Idempotent-Replayed"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
         
@@ -0,0 +1,35 @@
+package com.marketplace.config;
+
+import com.marketplace.service.CredentialService;
+import com.marketplace.service.PlatformRollupService;
+import com.marketplace.service.VendorRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+// One-shot seeding for `java -jar ... --seed`: the app starts without a web server, seeds, brings the
+// persisted derived data (credentials, rollups) up to date and exits. Node-local indexes of running
+// instances catch up on their own schedule.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeedCommand {
+
+    public static final String ARG = "--seed";
+
+    private final DataInitializer dataInitializer;
+    private final DataSeeder dataSeeder;
+    private final CredentialService credentialService;
+    private final VendorRollupService vendorRollupService;
+    private final PlatformRollupService platformRollupService;
+
+    public void run() {
+        long start = System.currentTimeMillis();
+        dataInitializer.ensureAdminUser();
+        dataSeeder.seed();
+        credentialService.backfill();
+        vendorRollupService.rebuild();
+        platformRollupService.rebuild();
+        log.info("Seed command finished in {} ms", System.currentTimeMillis() - start);
+    }
+}
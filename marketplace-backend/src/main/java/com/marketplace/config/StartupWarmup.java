@@ -0,0 +1,72 @@
+package com.marketplace.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.model.vendor.Vendor;
+import com.marketplace.repository.CategoryRepository;
+import com.marketplace.repository.VendorRepository;
+import com.marketplace.service.JwtService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Readiness stays OUT_OF_SERVICE until the hot request paths have been exercised once,
+// so the first real requests do not pay for class loading, connection setup and JIT.
+@Slf4j
+@Component("warmup")
+@RequiredArgsConstructor
+public class StartupWarmup implements HealthIndicator {
+
+    private final CategoryRepository categoryRepository;
+    private final VendorRepository vendorRepository;
+    private final JwtService jwtService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${warmup.iterations:50}")
+    private int iterations;
+
+    private volatile boolean complete;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            complete = true;
+            return;
+        }
+        Thread worker = new Thread(this::warmUp, "startup-warmup");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void warmUp() {
+        long start = System.currentTimeMillis();
+        Vendor sample = new Vendor();
+        sample.setSlug("warmup");
+        sample.setStoreName("Warmup");
+        try {
+            for (int i = 0; i < iterations; i++) {
+                categoryRepository.findByVisibleOrderByDisplayOrder(true);
+                vendorRepository.findBySlug("__warmup__");
+                objectMapper.writeValueAsBytes(sample);
+                jwtService.isTokenValid(jwtService.generateToken("warmup", "warmup@localhost", "CUSTOMER"));
+            }
+            log.info("Warm-up finished in {} ms ({} iterations)", System.currentTimeMillis() - start, iterations);
+        } catch (Exception e) {
+            log.warn("Warm-up aborted after {} ms: {}", System.currentTimeMillis() - start, e.getMessage());
+        } finally {
+            complete = true;
+        }
+    }
+
+    @Override
+    public Health health() {
+        return complete ? Health.up().build() : Health.outOfService().withDetail("state", "warming up").build();
+    }
+}
@@ -1,11 +1,17 @@
 package com.marketplace.controller;
 
 import com.marketplace.model.Collaboration;
+import com.marketplace.model.vendor.Vendor;
 import com.marketplace.repository.CollaborationRepository;
+import com.marketplace.service.CollaborationMatchService;
+import com.marketplace.service.IdempotencyService;
+import com.marketplace.service.VendorService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
-import java.time.LocalDateTime;
 import java.util.Map;
 
 @RestController
@@ -14,18 +20,62 @@ import java.util.Map;
 public class CollaborationController {
     
     private final CollaborationRepository collaborationRepository;
+    private final CollaborationMatchService collaborationMatchService;
+    private final VendorService vendorService;
+    private final IdempotencyService idempotencyService;
     
     @PostMapping("/post")
-    public ResponseEntity<?> createCollaboration(@RequestBody Collaboration collab) {
-        collab.setStatus("OPEN");
-        collab.setCreatedAt(LocalDateTime.now());
-        Collaboration saved = collaborationRepository.save(collab);
-        return ResponseEntity.ok(Map.of("collaboration", saved, "message", "Posted successfully"));
+    public ResponseEntity<?> createCollaboration(
+            @RequestBody Collaboration collab,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("collaborations", idempotencyKey, collab, () -> {
+            Collaboration saved = collaborationMatchService.post(collab);
+            return ResponseEntity.ok(Map.of("collaboration", saved, "message", "Posted successfully"));
+        });
     }
     
     @GetMapping("/search")
-    public ResponseEntity<?> searchCollaborations() {
-        return ResponseEntity.ok(collaborationRepository.findByStatus("OPEN"));
+    public ResponseEntity<?> searchCollaborations(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String location) {
+        return ResponseEntity.ok(collaborationMatchService.search(type, location));
+    }
+    
+    @GetMapping("/matches")
+    public ResponseEntity<?> getMatches(
+            @RequestParam String vendorSlug,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        Vendor vendor = vendorService.findVendorBySlug(vendorSlug).orElse(null);
+        if (vendor == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(collaborationMatchService.matches(vendor, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    // The closing vendor is whoever the token belongs to, never a slug from the request
+    @PutMapping("/{collaborationId}/close")
+    public ResponseEntity<?> closeCollaboration(
+            @PathVariable String collaborationId,
+            Authentication authentication) {
+        Vendor vendor = authentication != null
+                ? vendorService.findVendorById(authentication.getName()).orElse(null)
+                : null;
+        if (vendor == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", "Only the posting vendor can close this collaboration"));
+        }
+        try {
+            return collaborationMatchService.close(collaborationId, vendor.getSlug())
+                .map(closed -> ResponseEntity.ok(Map.of("collaboration", closed, "message", "Collaboration closed")))
+                .orElse(ResponseEntity.notFound().build());
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        }
     }
     
     @GetMapping("/vendor/{vendorSlug}")
@@ -1,9 +1,16 @@
 package com.marketplace.controller;
 
-import com.marketplace.model.vendor.Vendor;
+import com.marketplace.config.RateLimitProperties;
+import com.marketplace.service.PageViewService;
+import com.marketplace.service.TrendingService;
+import com.marketplace.service.VendorProfileCache;
+import com.marketplace.service.VendorRankingIndex;
 import com.marketplace.service.VendorService;
+import com.marketplace.util.ClientIp;
 import com.marketplace.util.SlugGenerator;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.Map;
@@ -14,6 +21,11 @@ import java.util.Map;
 public class ExploreController {
     
     private final VendorService vendorService;
+    private final VendorProfileCache vendorProfileCache;
+    private final PageViewService pageViewService;
+    private final TrendingService trendingService;
+    private final VendorRankingIndex vendorRankingIndex;
+    private final RateLimitProperties rateLimitProperties;
     
     @GetMapping
     public ResponseEntity<?> getAllVendors() {
@@ -21,12 +33,35 @@ public class ExploreController {
     }
     
     @GetMapping("/{slug}/profile")
-    public ResponseEntity<?> getVendorProfile(@PathVariable String slug) {
+    public ResponseEntity<?> getVendorProfile(@PathVariable String slug, HttpServletRequest request) {
+        return vendorProfileCache.getProfileJson(slug)
+                .<ResponseEntity<?>>map(json -> {
+                    pageViewService.record(slug, ClientIp.of(request,
+                            rateLimitProperties.isTrustForwardedFor(), rateLimitProperties.getTrustedProxies()),
+                            request.getHeader("User-Agent"), request.getHeader("Referer"));
+                    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrendingVendors(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String vendorType,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(trendingService.trending(city, vendorType, Math.max(1, Math.min(limit, 50))));
+    }
+    
+    @GetMapping("/ranked")
+    public ResponseEntity<?> getRankedVendors(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String vendorType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
         try {
-            Vendor vendor = vendorService.getVendorBySlug(slug);
-            return ResponseEntity.ok(vendor);
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+            return ResponseEntity.ok(vendorRankingIndex.ranked(city, vendorType, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
     
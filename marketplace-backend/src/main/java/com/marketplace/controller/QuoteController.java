@@ -1,6 +1,10 @@
 package com.marketplace.controller;
 
+import com.marketplace.dto.LeadRequest;
+import com.marketplace.dto.LeadResult;
 import com.marketplace.model.QuoteRequest;
+import com.marketplace.service.IdempotencyService;
+import com.marketplace.service.LeadDistributionService;
 import com.marketplace.service.QuoteService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -13,23 +17,48 @@ import java.util.Map;
 public class QuoteController {
     
     private final QuoteService quoteService;
+    private final LeadDistributionService leadDistributionService;
+    private final IdempotencyService idempotencyService;
     
     @PostMapping
-    public ResponseEntity<?> createQuote(@RequestBody QuoteRequest quote) {
-        try {
-            QuoteRequest created = quoteService.createQuote(quote);
-            return ResponseEntity.ok(Map.of("quote", created, "message", "Quote request submitted"));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+    public ResponseEntity<?> createQuote(
+            @RequestBody QuoteRequest quote,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("quotes", idempotencyKey, quote, () -> {
+            try {
+                QuoteRequest created = quoteService.createQuote(quote);
+                return ResponseEntity.ok(Map.of("quote", created, "message", "Quote request submitted"));
+            } catch (IllegalArgumentException e) {
+                // Anything else is a server fault: it propagates as a 5xx and the key is released
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
     }
     
     @PostMapping("/request")
-    public ResponseEntity<?> createQuoteRequest(@RequestBody QuoteRequest quote) {
+    public ResponseEntity<?> createQuoteRequest(
+            @RequestBody QuoteRequest quote,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("quotes", idempotencyKey, quote, () -> {
+            try {
+                QuoteRequest created = quoteService.createQuote(quote);
+                return ResponseEntity.ok(Map.of("quote", created, "message", "Quote request submitted"));
+            } catch (IllegalArgumentException e) {
+                // Anything else is a server fault: it propagates as a 5xx and the key is released
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
+    }
+    
+    @PostMapping("/leads")
+    public ResponseEntity<?> createLead(@RequestBody LeadRequest request) {
         try {
-            QuoteRequest created = quoteService.createQuote(quote);
-            return ResponseEntity.ok(Map.of("quote", created, "message", "Quote request submitted"));
-        } catch (Exception e) {
+            LeadResult result = leadDistributionService.distribute(request);
+            return ResponseEntity.ok(Map.of(
+                "lead", result,
+                "message", "Quote request sent to " + result.getQuotes().size() + " vendors"
+            ));
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
@@ -41,7 +70,9 @@ public class QuoteController {
     
     @GetMapping("/vendor")
     public ResponseEntity<?> getVendorQuotesByEmail(@RequestParam String email) {
-        return ResponseEntity.ok(quoteService.getVendorQuotesByEmail(email));
+        return quoteService.findVendorQuotesByEmail(email)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/customer/{email}")
@@ -60,8 +91,9 @@ public class QuoteController {
             @RequestBody Map<String, String> payload) {
         try {
             String status = payload.get("status");
-            QuoteRequest updated = quoteService.updateQuoteStatus(quoteId, status);
-            return ResponseEntity.ok(updated);
+            return quoteService.updateQuoteStatus(quoteId, status)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -77,8 +109,9 @@ public class QuoteController {
                 ((Number) payload.get("estimatedCost")).doubleValue() : null;
             String estimatedTime = (String) payload.get("estimatedTime");
             
-            QuoteRequest updated = quoteService.respondToQuote(quoteId, response, estimatedCost, estimatedTime);
-            return ResponseEntity.ok(updated);
+            return quoteService.respondToQuote(quoteId, response, estimatedCost, estimatedTime)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -1,6 +1,7 @@
 package com.marketplace.controller;
 
 import com.marketplace.model.Review;
+import com.marketplace.service.IdempotencyService;
 import com.marketplace.service.ReviewService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -13,15 +14,21 @@ import java.util.Map;
 public class ReviewController {
     
     private final ReviewService reviewService;
+    private final IdempotencyService idempotencyService;
     
     @PostMapping
-    public ResponseEntity<?> createReview(@RequestBody Review review) {
-        try {
-            Review created = reviewService.createReview(review);
-            return ResponseEntity.ok(Map.of("review", created, "message", "Review submitted"));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+    public ResponseEntity<?> createReview(
+            @RequestBody Review review,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("reviews", idempotencyKey, review, () -> {
+            try {
+                Review created = reviewService.createReview(review);
+                return ResponseEntity.ok(Map.of("review", created, "message", "Review submitted"));
+            } catch (IllegalArgumentException e) {
+                // Anything else is a server fault: it propagates as a 5xx and the key is released
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
     }
     
     @GetMapping("/{vendorSlug}")
@@ -29,9 +36,25 @@ public class ReviewController {
         return ResponseEntity.ok(reviewService.getVendorReviews(vendorSlug));
     }
     
+    @GetMapping("/{vendorSlug}/feed")
+    public ResponseEntity<?> getReviewFeed(
+            @PathVariable String vendorSlug,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(defaultValue = "false") boolean verified,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(reviewService.getReviewFeed(vendorSlug, sort, verified, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @GetMapping("/vendor")
     public ResponseEntity<?> getVendorReviewsByEmail(@RequestParam String email) {
-        return ResponseEntity.ok(reviewService.getVendorReviewsByEmail(email));
+        return reviewService.findVendorReviewsByEmail(email)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
     
     @PutMapping("/{reviewId}/flag")
@@ -40,8 +63,9 @@ public class ReviewController {
             @RequestBody Map<String, String> payload) {
         try {
             String reason = payload.get("reason");
-            Review flagged = reviewService.flagReview(reviewId, reason);
-            return ResponseEntity.ok(flagged);
+            return reviewService.flagReview(reviewId, reason)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -4,6 +4,7 @@ import com.marketplace.model.CustomerProfile;
 import com.marketplace.model.vendor.Vendor;
 import com.marketplace.repository.CustomerProfileRepository;
 import com.marketplace.repository.VendorRepository;
+import com.marketplace.service.VendorProfileCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,6 +22,7 @@ public class UploadController {
     
     private final CustomerProfileRepository customerProfileRepository;
     private final VendorRepository vendorRepository;
+    private final VendorProfileCache vendorProfileCache;
     
     @PostMapping("/customer/upload/photo")
     public ResponseEntity<?> uploadCustomerPhoto(
@@ -62,6 +64,7 @@ public class UploadController {
                     .orElseThrow(() -> new RuntimeException("Vendor not found"));
             vendor.setLogoUrl(fileUrl);
             vendorRepository.save(vendor);
+            vendorProfileCache.invalidate(vendor.getSlug());
             
             return ResponseEntity.ok(Map.of(
                 "message", "Logo uploaded successfully",
@@ -84,6 +87,7 @@ public class UploadController {
                     .orElseThrow(() -> new RuntimeException("Vendor not found"));
             vendor.setBannerUrl(fileUrl);
             vendorRepository.save(vendor);
+            vendorProfileCache.invalidate(vendor.getSlug());
             
             return ResponseEntity.ok(Map.of(
                 "message", "Banner uploaded successfully",
@@ -112,6 +116,7 @@ public class UploadController {
             gallery.add(fileUrl);
             vendor.setGallery(gallery);
             vendorRepository.save(vendor);
+            vendorProfileCache.invalidate(vendor.getSlug());
             
             return ResponseEntity.ok(Map.of(
                 "message", "Gallery image uploaded successfully",
@@ -136,6 +141,7 @@ public class UploadController {
                 gallery.removeIf(url -> url.contains(imageId));
                 vendor.setGallery(gallery);
                 vendorRepository.save(vendor);
+                vendorProfileCache.invalidate(vendor.getSlug());
             }
             
             return ResponseEntity.ok(Map.of("message", "Image deleted successfully"));
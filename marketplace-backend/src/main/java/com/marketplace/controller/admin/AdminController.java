@@ -1,13 +1,27 @@
 package com.marketplace.controller.admin;
 
+import com.marketplace.config.DataInitializer;
+import com.marketplace.config.DataSeeder;
+import com.marketplace.dto.BulkVendorStatusRequest;
 import com.marketplace.model.Category;
 import com.marketplace.repository.CategoryRepository;
 import com.marketplace.repository.UserRepository;
 import com.marketplace.repository.VendorRepository;
 import com.marketplace.repository.ReviewRepository;
+import com.marketplace.service.CollaborationMatchService;
+import com.marketplace.service.CredentialService;
+import com.marketplace.service.ModerationService;
+import com.marketplace.service.PlatformAnalyticsService;
+import com.marketplace.service.PlatformRollupService;
+import com.marketplace.service.VendorSlugRegistry;
+import com.marketplace.service.VendorRankingIndex;
+import com.marketplace.service.VendorRollupService;
+import com.marketplace.service.VendorStatusService;
+import com.mongodb.client.result.UpdateResult;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -19,6 +33,17 @@ public class AdminController {
     private final VendorRepository vendorRepository;
     private final ReviewRepository reviewRepository;
     private final CategoryRepository categoryRepository;
+    private final DataSeeder dataSeeder;
+    private final DataInitializer dataInitializer;
+    private final VendorSlugRegistry vendorSlugRegistry;
+    private final CredentialService credentialService;
+    private final ModerationService moderationService;
+    private final VendorStatusService vendorStatusService;
+    private final PlatformAnalyticsService platformAnalyticsService;
+    private final PlatformRollupService platformRollupService;
+    private final VendorRollupService vendorRollupService;
+    private final CollaborationMatchService collaborationMatchService;
+    private final VendorRankingIndex vendorRankingIndex;
     
     @GetMapping("/dashboard")
     public ResponseEntity<?> getAdminDashboard() {
@@ -35,18 +60,11 @@ public class AdminController {
     
     @GetMapping("/analytics")
     public ResponseEntity<?> getAdminAnalytics(@RequestParam(defaultValue = "30d") String period) {
-        long totalUsers = userRepository.count();
-        long totalVendors = vendorRepository.count();
-        long totalReviews = reviewRepository.count();
-        
-        return ResponseEntity.ok(Map.of(
-            "totalUsers", totalUsers,
-            "totalVendors", totalVendors,
-            "totalReviews", totalReviews,
-            "activeUsers", totalUsers,
-            "newUsers", 0,
-            "period", period
-        ));
+        try {
+            return ResponseEntity.ok(platformAnalyticsService.analytics(period));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
     
     @GetMapping("/vendors")
@@ -59,22 +77,54 @@ public class AdminController {
         return ResponseEntity.ok(reviewRepository.findByFlagged(true));
     }
     
+    @GetMapping("/reviews/moderation-queue")
+    public ResponseEntity<?> getModerationQueue(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(moderationService.queue(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/reviews/bulk-unflag")
+    public ResponseEntity<?> bulkUnflagReviews(@RequestBody Map<String, List<String>> payload) {
+        try {
+            UpdateResult result = moderationService.unflag(payload.getOrDefault("ids", List.of()));
+            return ResponseEntity.ok(Map.of(
+                "matched", result.getMatchedCount(),
+                "unflagged", result.getModifiedCount()
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/reviews/bulk-delete")
+    public ResponseEntity<?> bulkDeleteReviews(@RequestBody Map<String, List<String>> payload) {
+        try {
+            long deleted = moderationService.delete(payload.getOrDefault("ids", List.of()));
+            return ResponseEntity.ok(Map.of("deleted", deleted));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @DeleteMapping("/reviews/{reviewId}")
     public ResponseEntity<?> deleteReview(@PathVariable String reviewId) {
-        reviewRepository.deleteById(reviewId);
+        if (moderationService.delete(List.of(reviewId)) == 0) {
+            return ResponseEntity.notFound().build();
+        }
         return ResponseEntity.ok(Map.of("message", "Review deleted"));
     }
     
     @PutMapping("/reviews/{reviewId}/unflag")
     public ResponseEntity<?> unflagReview(@PathVariable String reviewId) {
-        return reviewRepository.findById(reviewId)
-            .map(review -> {
-                review.setFlagged(false);
-                review.setFlagReason(null);
-                reviewRepository.save(review);
-                return ResponseEntity.ok(Map.of("message", "Review unflagged"));
-            })
-            .orElse(ResponseEntity.notFound().build());
+        if (moderationService.unflag(List.of(reviewId)).getMatchedCount() == 0) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("message", "Review unflagged"));
     }
     
     @GetMapping("/users")
@@ -104,45 +154,45 @@ public class AdminController {
             .orElse(ResponseEntity.notFound().build());
     }
     
+    @PostMapping("/vendors/bulk-status")
+    public ResponseEntity<?> bulkUpdateVendorStatus(@RequestBody BulkVendorStatusRequest request) {
+        try {
+            UpdateResult result = vendorStatusService.updateStatus(request);
+            return ResponseEntity.ok(Map.of(
+                "matched", result.getMatchedCount(),
+                "modified", result.getModifiedCount()
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @PutMapping("/vendors/{vendorId}/approve")
     public ResponseEntity<?> approveVendor(@PathVariable String vendorId) {
-        return vendorRepository.findById(vendorId)
-            .map(vendor -> {
-                vendor.setStatus("ACTIVE");
-                vendorRepository.save(vendor);
-                return ResponseEntity.ok(Map.of("message", "Vendor approved"));
-            })
-            .orElse(ResponseEntity.notFound().build());
+        return changeVendorStatus(vendorId, "ACTIVE", "Vendor approved");
     }
     
     @PutMapping("/vendors/{vendorId}/reject")
     public ResponseEntity<?> rejectVendor(@PathVariable String vendorId, @RequestBody Map<String, String> payload) {
-        return vendorRepository.findById(vendorId)
-            .map(vendor -> {
-                vendor.setStatus("REJECTED");
-                vendorRepository.save(vendor);
-                return ResponseEntity.ok(Map.of("message", "Vendor rejected"));
-            })
-            .orElse(ResponseEntity.notFound().build());
+        return changeVendorStatus(vendorId, "REJECTED", "Vendor rejected");
     }
     
     @PutMapping("/vendors/{vendorId}/suspend")
     public ResponseEntity<?> suspendVendor(@PathVariable String vendorId) {
-        return vendorRepository.findById(vendorId)
-            .map(vendor -> {
-                vendor.setStatus("SUSPENDED");
-                vendorRepository.save(vendor);
-                return ResponseEntity.ok(Map.of("message", "Vendor suspended"));
-            })
-            .orElse(ResponseEntity.notFound().build());
+        return changeVendorStatus(vendorId, "SUSPENDED", "Vendor suspended");
+    }
+    
+    private ResponseEntity<?> changeVendorStatus(String vendorId, String status, String message) {
+        if (vendorStatusService.updateStatus(List.of(vendorId), status).getMatchedCount() == 0) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("message", message));
     }
     
     @GetMapping("/pending-actions")
     public ResponseEntity<?> getPendingActions() {
-        long pendingVendors = vendorRepository.findAll().stream()
-            .filter(v -> "PENDING".equals(v.getStatus()))
-            .count();
-        long flaggedReviews = reviewRepository.findByFlagged(true).size();
+        long pendingVendors = vendorRepository.countByStatus("PENDING");
+        long flaggedReviews = reviewRepository.countByFlagged(true);
         
         return ResponseEntity.ok(Map.of(
             "pendingVendors", pendingVendors,
@@ -157,6 +207,19 @@ public class AdminController {
         return ResponseEntity.ok(java.util.Collections.emptyList());
     }
     
+    @PostMapping("/seed")
+    public ResponseEntity<?> seedDatabase() {
+        dataInitializer.ensureAdminUser();
+        dataSeeder.seed();
+        vendorSlugRegistry.rebuild();
+        credentialService.backfill();
+        vendorRollupService.rebuild();
+        platformRollupService.rebuild();
+        collaborationMatchService.rebuild();
+        vendorRankingIndex.rebuild();
+        return ResponseEntity.ok(Map.of("message", "Database seeding completed"));
+    }
+    
     @GetMapping("/categories")
     public ResponseEntity<?> getAllCategories() {
         return ResponseEntity.ok(categoryRepository.findAll());
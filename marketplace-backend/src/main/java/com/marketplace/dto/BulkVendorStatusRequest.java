@@ -0,0 +1,22 @@
+package com.marketplace.dto;
+
+import lombok.Data;
+import java.time.Instant;
+import java.util.List;
+
+@Data
+public class BulkVendorStatusRequest {
+    private String status; // ACTIVE, REJECTED, SUSPENDED, PENDING
+    
+    // Either ids or filter
+    private List<String> ids;
+    private Filter filter;
+    
+    @Data
+    public static class Filter {
+        private String status;
+        private String city;
+        private Instant createdFrom;
+        private Instant createdTo;
+    }
+}
@@ -0,0 +1,14 @@
+package com.marketplace.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.marketplace.model.Collaboration;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CollaborationPage {
+    private List<Collaboration> collaborations;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -11,6 +11,8 @@ public class DashboardMetrics {
     private long totalViews;
     private long recentViews7d;
     private long recentViews30d;
+    private long uniqueVisitors7d;
+    private long uniqueVisitors30d;
     
     private long totalLeads;
     private long recentLeads7d;
@@ -0,0 +1,23 @@
+package com.marketplace.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class LeadRequest {
+    private String customerName;
+    private String customerEmail;
+    private String customerMobile;
+    private String serviceRequested;
+    private String projectDescription;
+    private Double budget;
+    private LocalDateTime preferredDate;
+    
+    // Vendor selection: a vendor type plus either a city or a point and radius
+    private String vendorType;
+    private String city;
+    private Double latitude;
+    private Double longitude;
+    private Double radiusKm;
+    private Integer maxVendors;
+}
@@ -0,0 +1,12 @@
+package com.marketplace.dto;
+
+import com.marketplace.model.QuoteRequest;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class LeadResult {
+    private String leadId;
+    private List<QuoteRequest> quotes; // copies created by this submission
+    private int duplicates; // vendors that already had this request today
+}
@@ -0,0 +1,56 @@
+package com.marketplace.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class PlatformAnalytics {
+    private String period;
+    private int days;
+    private String bucket; // day, week
+    
+    private long totalUsers;
+    private long totalVendors;
+    private long totalReviews;
+    private long activeUsers; // distinct authenticated users in the period (estimate)
+    private long newUsers;
+    private long newVendors;
+    
+    private Map<String, Long> signupsByRole;
+    private Map<String, Long> vendorsByCity;
+    private Map<String, Long> vendorsByType;
+    
+    // Shapes the admin analytics page reads
+    private Totals totals;
+    private List<GrowthPoint> userGrowth;
+    private List<ActivityPoint> platformActivity;
+    private List<Object> vendorApprovals = List.of(); // no status history is recorded yet
+    private List<Object> reviewStats = List.of();
+    
+    private List<Bucket> series;
+    
+    public record Totals(long totalUsers, long totalVendors, double totalRevenue, double averageRating,
+                         long totalQuotes, long totalReviews) {}
+    
+    public record GrowthPoint(LocalDate date, long customers, long vendors) {}
+    
+    public record ActivityPoint(LocalDate date, long quotes, long reviews) {}
+    
+    @Data
+    public static class Bucket {
+        private LocalDate date;
+        private long customerSignups;
+        private long vendorSignups;
+        private long quotes;
+        private long reviews;
+        private Double averageRating;
+        private double revenue;
+        private long activeUsers;
+        
+        @JsonIgnore
+        private long ratingSum;
+    }
+}
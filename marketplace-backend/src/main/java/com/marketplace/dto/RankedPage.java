@@ -0,0 +1,13 @@
+package com.marketplace.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RankedPage {
+    private List<RankedVendor> vendors;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,17 @@
+package com.marketplace.dto;
+
+import lombok.Data;
+
+@Data
+public class RankedVendor {
+    private String slug;
+    private String storeName;
+    private String city;
+    private String vendorType;
+    private String logoUrl;
+    private Double rating;
+    private Integer reviewCount;
+    private boolean certified;
+    private boolean promoted;
+    private double score;
+}
@@ -0,0 +1,20 @@
+package com.marketplace.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.marketplace.model.Review;
+import lombok.Data;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReviewPage {
+    private List<Review> reviews;
+    private String nextCursor;
+    private boolean hasMore;
+    
+    // Only sent with the first page
+    private Map<String, Long> ratingCounts;
+    private Long totalReviews;
+    private Double averageRating;
+}
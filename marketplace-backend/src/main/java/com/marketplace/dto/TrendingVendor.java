@@ -0,0 +1,14 @@
+package com.marketplace.dto;
+
+import lombok.Data;
+
+@Data
+public class TrendingVendor {
+    private String slug;
+    private String storeName;
+    private String city;
+    private String vendorType;
+    private String logoUrl;
+    private Double rating;
+    private double score;
+}
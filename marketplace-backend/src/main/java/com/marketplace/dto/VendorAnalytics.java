@@ -0,0 +1,55 @@
+package com.marketplace.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class VendorAnalytics {
+    private String period;
+    private int days;
+    private String bucket; // day, week
+    
+    private long totalViews;
+    private long uniqueVisitors;
+    private long totalQuotes;
+    private long respondedQuotes;
+    private long acceptedQuotes;
+    private long completedQuotes;
+    private Double conversionRate; // accepted / quotes, percent
+    private Double averageResponseMinutes;
+    private long totalReviews;
+    private Double averageRating;
+    
+    // Shapes the dashboard charts read
+    private List<CountPoint> viewsTrend;
+    private List<CountPoint> quoteTrend;
+    private List<RatingPoint> ratingTrend;
+    
+    private List<Bucket> series;
+    
+    public record CountPoint(LocalDate date, long count) {}
+    
+    public record RatingPoint(LocalDate date, double rating) {}
+    
+    @Data
+    public static class Bucket {
+        private LocalDate date;
+        private long views;
+        private long uniqueVisitors;
+        private long quotes;
+        private long respondedQuotes;
+        private long acceptedQuotes;
+        private long completedQuotes;
+        private long rejectedQuotes;
+        private Double averageResponseMinutes;
+        private long reviews;
+        private Double averageRating;
+        
+        @JsonIgnore
+        private double responseMinutesSum;
+        @JsonIgnore
+        private long ratingSum;
+    }
+}
@@ -0,0 +1,21 @@
+package com.marketplace.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDate;
+
+@Data
+@Document(collection = "activity_sketches")
+public class ActivitySketch {
+    @Id
+    private String id; // yyyy-MM-dd
+    
+    private LocalDate day;
+    
+    private byte[] registers; // HyperLogLog registers of authenticated user ids
+    
+    @Version
+    private Long version;
+}
@@ -0,0 +1,45 @@
+package com.marketplace.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Document(collection = "credentials")
+public class Credential {
+    @Id
+    private String email; // normalized: trimmed, lower-case
+    
+    private String accountType; // USER, VENDOR
+    
+    private String accountId;
+    
+    private String accountEmail; // as stored on the account; tokens carry this one
+    
+    private String role;
+    
+    private String passwordHash;
+    
+    // Legacy data can hold a user and a vendor (or two case variants) under one email. The old login
+    // tried each of them, so they are kept here instead of one overwriting the other.
+    private List<Account> alternates;
+    
+    private Instant createdAt;
+    
+    private Instant updatedAt;
+    
+    @Data
+    public static class Account {
+        private String accountType;
+        
+        private String accountId;
+        
+        private String accountEmail;
+        
+        private String role;
+        
+        private String passwordHash;
+    }
+}
@@ -0,0 +1,27 @@
+package com.marketplace.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+
+@Data
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+    @Id
+    private String id; // <scope>:<user:principal | ip:address>:<Idempotency-Key>
+    
+    private String status; // IN_PROGRESS, COMPLETED
+    
+    private String requestHash; // a reused key with a different body is refused
+    
+    private Integer httpStatus;
+    
+    private String responseBody; // serialized JSON, replayed as-is
+    
+    private Instant lockedUntil; // renewed by the holder; an IN_PROGRESS record past this was abandoned
+    
+    private Instant createdAt;
+    
+    private Instant expiresAt; // TTL index
+}
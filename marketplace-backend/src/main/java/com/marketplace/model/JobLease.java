@@ -0,0 +1,23 @@
+package com.marketplace.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+
+@Data
+@Document(collection = "job_leases")
+public class JobLease {
+    @Id
+    private String name;
+    
+    private String owner; // instance currently holding the lease
+    
+    private Instant lockedUntil;
+    
+    private Instant lastStartedAt;
+    
+    private Instant lastFinishedAt;
+    
+    private Long lastAffected;
+}
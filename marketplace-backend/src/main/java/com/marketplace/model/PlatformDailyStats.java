@@ -0,0 +1,38 @@
+package com.marketplace.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Document(collection = "platform_daily_stats")
+public class PlatformDailyStats {
+    @Id
+    private String id; // yyyy-MM-dd
+    
+    private LocalDate day;
+    
+    private Map<String, Long> signupsByRole = new HashMap<>(); // users collection: CUSTOMER, ADMIN
+    
+    private long vendorSignups;
+    
+    private Map<String, Long> vendorsByCity = new HashMap<>();
+    
+    private Map<String, Long> vendorsByType = new HashMap<>();
+    
+    private long quotes;
+    
+    private long reviews;
+    
+    private long ratingSum;
+    
+    private double revenue; // subscription prices by start date
+    
+    private long activeUsers; // distinct authenticated users that day (estimate)
+    
+    private Instant updatedAt;
+}
@@ -35,6 +35,12 @@ public class QuoteRequest {
     
     private String estimatedTime;
     
+    private LocalDateTime respondedAt; // first time the vendor moved it off NEW
+    
+    private String leadId; // shared by the copies of one multi-vendor request
+    
+    private String dedupeKey; // unique per customer, request, vendor and day
+    
     private LocalDateTime createdAt;
     
     private LocalDateTime updatedAt;
@@ -0,0 +1,17 @@
+package com.marketplace.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+
+@Data
+@Document(collection = "rollup_checkpoints")
+public class RollupCheckpoint {
+    @Id
+    private String name;
+    
+    private Instant watermark; // source changes before this are already in the rollup
+    
+    private Instant updatedAt;
+}
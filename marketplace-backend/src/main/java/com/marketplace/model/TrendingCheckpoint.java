@@ -0,0 +1,26 @@
+package com.marketplace.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@Document(collection = "trending_checkpoints")
+public class TrendingCheckpoint {
+    @Id
+    private String id; // <node>|<partition>
+    
+    private String node;
+    
+    private String partition; // all, city:<city>, type:<vendorType>
+    
+    private long landmark; // epoch millis the stored weights are relative to
+    
+    private byte[] sketch; // serialized CountMinSketch of this node's own events
+    
+    private Map<String, Double> candidates; // vendor slug -> decayed score
+    
+    private Instant updatedAt;
+}
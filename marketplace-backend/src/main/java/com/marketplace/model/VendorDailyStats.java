@@ -0,0 +1,39 @@
+package com.marketplace.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Data
+@Document(collection = "vendor_daily_stats")
+public class VendorDailyStats {
+    @Id
+    private String id; // vendorSlug + ":" + day, so a vendor's range is an _id range
+    
+    private String vendorSlug;
+    
+    private LocalDate day;
+    
+    // Page views by viewedAt
+    private long views;
+    
+    // Quotes by the day they were created, with their current outcome
+    private long quotes;
+    private long respondedQuotes;
+    private double responseMinutesSum;
+    private long acceptedQuotes;
+    private long completedQuotes;
+    private long rejectedQuotes;
+    
+    // Reviews by createdAt
+    private long reviews;
+    private long ratingSum;
+    
+    private Instant updatedAt;
+    
+    public static String idFor(String vendorSlug, LocalDate day) {
+        return vendorSlug + ":" + day;
+    }
+}
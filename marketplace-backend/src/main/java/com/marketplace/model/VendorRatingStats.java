@@ -0,0 +1,27 @@
+package com.marketplace.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Document(collection = "vendor_rating_stats")
+public class VendorRatingStats {
+    @Id
+    private String vendorSlug;
+    
+    private Map<String, Long> counts = new HashMap<>(); // "1".."5" -> number of reviews
+    
+    private long total;
+    
+    private long sum;
+    
+    private Instant updatedAt;
+    
+    public double average() {
+        return total == 0 ? 0.0 : Math.round((double) sum / total * 10.0) / 10.0;
+    }
+}
@@ -0,0 +1,27 @@
+package com.marketplace.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDate;
+
+@Data
+@Document(collection = "visitor_sketches")
+public class VisitorSketch {
+    @Id
+    private String id; // vendorSlug + ":" + day
+    
+    private String vendorSlug;
+    
+    private LocalDate day;
+    
+    private byte[] registers; // HyperLogLog registers of visitor fingerprints
+    
+    @Version
+    private Long version;
+    
+    public static String idFor(String vendorSlug, LocalDate day) {
+        return vendorSlug + ":" + day;
+    }
+}
@@ -0,0 +1,7 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.ActivitySketch;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ActivitySketchRepository extends MongoRepository<ActivitySketch, String> {
+}
@@ -0,0 +1,7 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.Credential;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface CredentialRepository extends MongoRepository<Credential, String> {
+}
@@ -0,0 +1,7 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.PlatformDailyStats;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface PlatformDailyStatsRepository extends MongoRepository<PlatformDailyStats, String> {
+}
@@ -8,4 +8,5 @@ public interface ReviewRepository extends MongoRepository<Review, String> {
     List<Review> findByVendorSlug(String vendorSlug);
     List<Review> findByFlagged(boolean flagged);
     long countByVendorSlug(String vendorSlug);
+    long countByFlagged(boolean flagged);
 }
@@ -0,0 +1,7 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.RollupCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface RollupCheckpointRepository extends MongoRepository<RollupCheckpoint, String> {
+}
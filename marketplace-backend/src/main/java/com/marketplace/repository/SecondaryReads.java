@@ -0,0 +1,15 @@
+package com.marketplace.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Binds a repository to the secondary-preferred template (see MongoReadRoutingConfig). Only for
+// read-only repositories whose callers can live with data up to max-staleness old.
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SecondaryReads {
+}
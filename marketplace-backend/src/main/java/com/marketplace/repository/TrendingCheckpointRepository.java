@@ -0,0 +1,7 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.TrendingCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface TrendingCheckpointRepository extends MongoRepository<TrendingCheckpoint, String> {
+}
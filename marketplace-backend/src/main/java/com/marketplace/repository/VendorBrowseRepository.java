@@ -0,0 +1,13 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.vendor.Vendor;
+import org.springframework.data.repository.Repository;
+import java.util.List;
+
+// Explore listings and search; a vendor edit showing up a few seconds late here is fine
+@SecondaryReads
+public interface VendorBrowseRepository extends Repository<Vendor, String> {
+    List<Vendor> findByStatus(String status);
+    List<Vendor> findByCity(String city);
+    List<Vendor> findByVendorType(String vendorType);
+}
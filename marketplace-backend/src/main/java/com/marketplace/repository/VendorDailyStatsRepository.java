@@ -0,0 +1,7 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.VendorDailyStats;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface VendorDailyStatsRepository extends MongoRepository<VendorDailyStats, String> {
+}
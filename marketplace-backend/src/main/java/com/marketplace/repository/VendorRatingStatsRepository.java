@@ -0,0 +1,7 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.VendorRatingStats;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface VendorRatingStatsRepository extends MongoRepository<VendorRatingStats, String> {
+}
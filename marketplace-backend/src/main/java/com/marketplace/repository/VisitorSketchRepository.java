@@ -0,0 +1,7 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.VisitorSketch;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface VisitorSketchRepository extends MongoRepository<VisitorSketch, String> {
+}
@@ -0,0 +1,101 @@
+package com.marketplace.service;
+
+import com.marketplace.model.ActivitySketch;
+import com.marketplace.repository.ActivitySketchRepository;
+import com.marketplace.util.HyperLogLog;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Counts distinct authenticated users per day. Every request with a valid JWT adds its user id to
+// that day's HyperLogLog in memory; flush() merges them into activity_sketches, so "active users"
+// for any period is a union of at most one sketch per day.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ActivityTracker {
+
+    private static final int MERGE_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+    private final ActivitySketchRepository activitySketchRepository;
+
+    private final Map<LocalDate, HyperLogLog> pending = new ConcurrentHashMap<>();
+
+    public void record(String userId) {
+        if (userId == null) return;
+        pending.compute(LocalDate.now(), (day, sketch) -> {
+            HyperLogLog hll = sketch != null ? sketch : new HyperLogLog();
+            hll.add(userId);
+            return hll;
+        });
+    }
+
+    public Map<LocalDate, HyperLogLog> sketches(LocalDate from, LocalDate to) {
+        Query range = Query.query(Criteria.where("_id").gte(from.toString()).lte(to.toString()));
+        Map<LocalDate, HyperLogLog> sketches = new TreeMap<>();
+        for (ActivitySketch sketch : mongoTemplate.find(range, ActivitySketch.class)) {
+            sketches.put(sketch.getDay(), HyperLogLog.fromBytes(sketch.getRegisters()));
+        }
+        return sketches;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.activity.flush-interval:PT30S}")
+    public void flush() {
+        for (LocalDate day : pending.keySet()) {
+            HyperLogLog delta = pending.remove(day);
+            if (delta == null) continue;
+            try {
+                merge(day, delta);
+            } catch (Exception e) {
+                pending.merge(day, delta, (newer, failed) -> {
+                    newer.merge(failed);
+                    return newer;
+                });
+                log.warn("Failed to merge activity sketch {}: {}", day, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void merge(LocalDate day, HyperLogLog delta) {
+        String id = day.toString();
+        for (int attempt = 1; attempt <= MERGE_ATTEMPTS; attempt++) {
+            ActivitySketch sketch = activitySketchRepository.findById(id).orElse(null);
+            try {
+                if (sketch == null) {
+                    sketch = new ActivitySketch();
+                    sketch.setId(id);
+                    sketch.setDay(day);
+                    sketch.setRegisters(delta.toBytes());
+                    mongoTemplate.insert(sketch);
+                } else {
+                    HyperLogLog merged = HyperLogLog.fromBytes(sketch.getRegisters());
+                    merged.merge(delta);
+                    sketch.setRegisters(merged.toBytes());
+                    activitySketchRepository.save(sketch);
+                }
+                return;
+            } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+                log.debug("Concurrent update of activity sketch {}, retrying", id);
+            }
+        }
+        throw new IllegalStateException("Gave up after " + MERGE_ATTEMPTS + " attempts");
+    }
+}
@@ -3,15 +3,20 @@ package com.marketplace.service;
 import com.marketplace.dto.auth.LoginDto;
 import com.marketplace.dto.auth.SignupDto;
 import com.marketplace.dto.auth.VendorRegistrationDto;
+import com.marketplace.model.Credential;
 import com.marketplace.model.User;
 import com.marketplace.model.vendor.Vendor;
 import com.marketplace.repository.UserRepository;
 import com.marketplace.repository.VendorRepository;
 import com.marketplace.util.SlugGenerator;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -21,42 +26,66 @@ public class AuthService {
     private final UserRepository userRepository;
     private final VendorRepository vendorRepository;
     private final JwtService jwtService;
+    private final AvailabilityService availabilityService;
+    private final VendorRankingIndex vendorRankingIndex;
+    private final CredentialService credentialService;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
     
+    private static final int MAX_SLUG_ATTEMPTS = 20;
+    
     public String customerSignup(SignupDto dto) {
-        if (userRepository.existsByEmail(dto.getEmail())) {
+        if (availabilityService.isEmailTaken(dto.getEmail())) {
+            throw new RuntimeException("Email already in use");
+        }
+        
+        // The credential is claimed first: the insert on the normalized email is what settles two signups
+        // racing for the same address, whatever its case
+        String id = new ObjectId().toHexString();
+        String passwordHash = passwordEncoder.encode(dto.getPassword());
+        if (!credentialService.claim(CredentialService.USER, id, dto.getEmail(), "CUSTOMER", passwordHash)) {
             throw new RuntimeException("Email already in use");
         }
         
         User user = new User();
+        user.setId(id);
         user.setName(dto.getName());
         user.setEmail(dto.getEmail());
-        user.setPassword(passwordEncoder.encode(dto.getPassword()));
+        user.setPassword(passwordHash);
         user.setRole("CUSTOMER");
         user.setConsentConfirmed(dto.isConsentConfirmed());
         user.setCreatedAt(Instant.now());
         user.setUpdatedAt(Instant.now());
         
-        User saved = userRepository.save(user);
+        User saved;
+        try {
+            saved = userRepository.insert(user);
+        } catch (RuntimeException e) {
+            credentialService.release(dto.getEmail(), id);
+            throw e;
+        }
         return jwtService.generateToken(saved.getId(), saved.getEmail(), saved.getRole());
     }
     
     public String vendorSignup(VendorRegistrationDto dto) {
-        if (vendorRepository.existsByEmail(dto.getEmail())) {
+        if (availabilityService.isEmailTaken(dto.getEmail())) {
             throw new RuntimeException("Email already in use");
         }
-        
-        String slug = SlugGenerator.generateSlug(dto.getStoreName());
-        if (vendorRepository.existsBySlug(slug)) {
+        if (availabilityService.isStoreNameTaken(dto.getStoreName())) {
             throw new RuntimeException("Store name already taken");
         }
         
+        String id = new ObjectId().toHexString();
+        String passwordHash = passwordEncoder.encode(dto.getPassword());
+        if (!credentialService.claim(CredentialService.VENDOR, id, dto.getEmail(), "VENDOR", passwordHash)) {
+            throw new RuntimeException("Email already in use");
+        }
+        
         Vendor vendor = new Vendor();
-        vendor.setSlug(slug);
+        vendor.setId(id);
         vendor.setStoreName(dto.getStoreName());
         vendor.setBusinessName(dto.getBusinessName());
         vendor.setEmail(dto.getEmail());
-        vendor.setPasswordHash(passwordEncoder.encode(dto.getPassword()));
+        vendor.setPasswordHash(passwordHash);
         vendor.setVendorType(dto.getVendorType());
         vendor.setMobile(dto.getMobile());
         vendor.setCity(dto.getCity());
@@ -68,15 +97,90 @@ public class AuthService {
         vendor.setCreatedAt(Instant.now());
         vendor.setUpdatedAt(Instant.now());
         
-        Vendor saved = vendorRepository.save(vendor);
+        Vendor saved;
+        try {
+            saved = insertWithUniqueSlug(vendor, SlugGenerator.generateSlug(dto.getStoreName()));
+        } catch (RuntimeException e) {
+            credentialService.release(dto.getEmail(), id);
+            throw e;
+        }
+        availabilityService.registerVendor(saved.getSlug());
+        vendorRankingIndex.refresh(saved.getSlug());
         return jwtService.generateToken(saved.getId(), saved.getEmail(), saved.getRole());
     }
     
+    // The unique slug index decides collisions, so two signups racing for "acme" end up as acme and acme-2
+    private Vendor insertWithUniqueSlug(Vendor vendor, String baseSlug) {
+        for (int attempt = 1; attempt <= MAX_SLUG_ATTEMPTS; attempt++) {
+            String candidate = attempt == 1 ? baseSlug : baseSlug + "-" + attempt;
+            if (!availabilityService.isSlugAvailable(candidate)) {
+                continue;
+            }
+            vendor.setSlug(candidate);
+            try {
+                return vendorRepository.insert(vendor);
+            } catch (DuplicateKeyException e) {
+                String field = duplicateField(e);
+                if ("email".equals(field)) {
+                    throw new RuntimeException("Email already in use");
+                }
+                if ("storeName".equals(field)) {
+                    throw new RuntimeException("Store name already taken");
+                }
+                // Slug taken between the availability check and the insert; try the next suffix
+            }
+        }
+        throw new RuntimeException("Store name already taken");
+    }
+    
+    // E11000 messages look like "... index: slug_idx dup key: { slug: \"acme\" }"
+    private static String duplicateField(DuplicateKeyException e) {
+        String message = String.valueOf(e.getMessage());
+        int start = message.indexOf("dup key: {");
+        if (start < 0) return null;
+        int end = message.indexOf(':', start + "dup key: {".length());
+        return end < 0 ? null : message.substring(start + "dup key: {".length(), end).trim();
+    }
+    
     public String login(LoginDto dto) {
+        Optional<Credential> credential = credentialService.find(dto.getEmail());
+        if (credential.isPresent()) {
+            Credential.Account account = matching(credential.get(), dto.getPassword())
+                    .orElseThrow(() -> new RuntimeException("Invalid credentials"));
+            return jwtService.generateToken(account.getAccountId(), account.getAccountEmail(), account.getRole());
+        }
+        if (!credentialService.isBackfilled()) {
+            return legacyLogin(dto);
+        }
+        throw new RuntimeException("Invalid credentials");
+    }
+    
+    // The entry's own account first, then any account sharing its email, in the order the old login tried them
+    private Optional<Credential.Account> matching(Credential credential, String password) {
+        List<Credential.Account> accounts = new ArrayList<>();
+        Credential.Account primary = new Credential.Account();
+        primary.setAccountType(credential.getAccountType());
+        primary.setAccountId(credential.getAccountId());
+        primary.setAccountEmail(credential.getAccountEmail());
+        primary.setRole(credential.getRole());
+        primary.setPasswordHash(credential.getPasswordHash());
+        accounts.add(primary);
+        if (credential.getAlternates() != null) {
+            accounts.addAll(credential.getAlternates());
+        }
+        return accounts.stream()
+                .filter(account -> account.getPasswordHash() != null && passwordEncoder.matches(password, account.getPasswordHash()))
+                .findFirst();
+    }
+    
+    // Only used while the credential backfill is still running
+    private String legacyLogin(LoginDto dto) {
         // Try user login
         Optional<User> user = userRepository.findByEmail(dto.getEmail());
         if (user.isPresent()) {
             if (passwordEncoder.matches(dto.getPassword(), user.get().getPassword())) {
+                credentialService.link(CredentialService.USER, user.get().getId(), user.get().getEmail(),
+                        user.get().getRole(), user.get().getPassword());
                 return jwtService.generateToken(user.get().getId(), user.get().getEmail(), user.get().getRole());
             }
         }
@@ -85,6 +189,8 @@ public class AuthService {
         Optional<Vendor> vendor = vendorRepository.findByEmail(dto.getEmail());
         if (vendor.isPresent()) {
             if (passwordEncoder.matches(dto.getPassword(), vendor.get().getPasswordHash())) {
+                credentialService.link(CredentialService.VENDOR, vendor.get().getId(), vendor.get().getEmail(),
+                        vendor.get().getRole(), vendor.get().getPasswordHash());
                 return jwtService.generateToken(vendor.get().getId(), vendor.get().getEmail(), vendor.get().getRole());
             }
         }
@@ -93,27 +199,42 @@ public class AuthService {
     }
     
     public void changePassword(String email, String currentPassword, String newPassword) {
-        // Try user first
-        Optional<User> user = userRepository.findByEmail(email);
+        Optional<Credential> credential = credentialService.find(email);
+        Optional<User> user;
+        Optional<Vendor> vendor;
+        if (credential.isPresent()) {
+            // With several accounts behind one email, the current password says which one is meant
+            Credential.Account account = matching(credential.get(), currentPassword)
+                    .orElseThrow(() -> new RuntimeException("Current password is incorrect"));
+            boolean isVendor = CredentialService.VENDOR.equals(account.getAccountType());
+            user = isVendor ? Optional.empty() : userRepository.findById(account.getAccountId());
+            vendor = isVendor ? vendorRepository.findById(account.getAccountId()) : Optional.empty();
+        } else if (!credentialService.isBackfilled()) {
+            user = userRepository.findByEmail(email);
+            vendor = user.isPresent() ? Optional.empty() : vendorRepository.findByEmail(email);
+        } else {
+            throw new RuntimeException("User not found");
+        }
+        
         if (user.isPresent()) {
             if (!passwordEncoder.matches(currentPassword, user.get().getPassword())) {
                 throw new RuntimeException("Current password is incorrect");
             }
             user.get().setPassword(passwordEncoder.encode(newPassword));
             user.get().setUpdatedAt(Instant.now());
-            userRepository.save(user.get());
+            User saved = userRepository.save(user.get());
+            credentialService.updatePassword(CredentialService.USER, saved.getId(), saved.getEmail(), saved.getRole(), saved.getPassword());
             return;
         }
         
-        // Try vendor
-        Optional<Vendor> vendor = vendorRepository.findByEmail(email);
         if (vendor.isPresent()) {
             if (!passwordEncoder.matches(currentPassword, vendor.get().getPasswordHash())) {
                 throw new RuntimeException("Current password is incorrect");
             }
             vendor.get().setPasswordHash(passwordEncoder.encode(newPassword));
             vendor.get().setUpdatedAt(Instant.now());
-            vendorRepository.save(vendor.get());
+            Vendor saved = vendorRepository.save(vendor.get());
+            credentialService.updatePassword(CredentialService.VENDOR, saved.getId(), saved.getEmail(), saved.getRole(), saved.getPasswordHash());
             return;
         }
         
@@ -0,0 +1,46 @@
+package com.marketplace.service;
+
+import com.marketplace.repository.UserRepository;
+import com.marketplace.repository.VendorRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+// Typeahead and signup availability checks. Slug typeahead is answered from the slug registry's Bloom
+// filter, so keystrokes for free names never reach Mongo. Signup checks always go to Mongo: a filter on
+// this node can lag signups on other nodes, and a stale "definitely absent" must never let a second
+// account claim an email or store name.
+@Service
+@RequiredArgsConstructor
+public class AvailabilityService {
+
+    private final VendorRepository vendorRepository;
+    private final UserRepository userRepository;
+    private final VendorSlugRegistry vendorSlugRegistry;
+    private final CredentialService credentialService;
+
+    // Advisory only; claiming a slug is settled by the unique slug index at insert time
+    public boolean isSlugAvailable(String slug) {
+        if (!vendorSlugRegistry.mightExist(slug)) {
+            return true;
+        }
+        if (vendorRepository.existsBySlug(slug)) {
+            return false;
+        }
+        vendorSlugRegistry.recordMiss(slug);
+        return true;
+    }
+
+    public boolean isStoreNameTaken(String storeName) {
+        return vendorRepository.existsByStoreName(storeName);
+    }
+
+    // The credential is keyed by the normalized email, so "Vendor@x.com" is taken once "vendor@x.com" is
+    public boolean isEmailTaken(String email) {
+        return credentialService.find(email).isPresent()
+                || userRepository.existsByEmail(email) || vendorRepository.existsByEmail(email);
+    }
+
+    public void registerVendor(String slug) {
+        vendorSlugRegistry.register(slug);
+    }
+}
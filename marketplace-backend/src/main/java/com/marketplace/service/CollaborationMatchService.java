@@ -0,0 +1,343 @@
+package com.marketplace.service;
+
+import com.marketplace.dto.CollaborationPage;
+import com.marketplace.model.Collaboration;
+import com.marketplace.model.Notification;
+import com.marketplace.model.vendor.Vendor;
+import com.marketplace.repository.CollaborationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+
+// Inverted index of OPEN collaborations: service type -> location -> postings, newest first. A vendor's
+// feed merges only the posting lists for its own types and city, so it costs O(matches) however many
+// posts are open. Other instances' posts arrive through the invalidation bus; a periodic rebuild backs it up.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CollaborationMatchService implements InvalidationHandler {
+
+    public static final String TOPIC = "collaborations";
+
+    public static final int MAX_PAGE_SIZE = 50;
+    // Posts without a location are open to vendors anywhere
+    private static final String ANYWHERE = "";
+
+    private static final Comparator<Posting> NEWEST_FIRST = Comparator
+            .comparing(Posting::createdAt, Comparator.reverseOrder())
+            .thenComparing(Posting::id, Comparator.reverseOrder());
+
+    private final MongoTemplate mongoTemplate;
+    private final CollaborationRepository collaborationRepository;
+    private final InvalidationBus invalidationBus;
+
+    private volatile Index index = new Index();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${collaboration.index.refresh-interval:PT5M}",
+            initialDelayString = "${collaboration.index.refresh-interval:PT5M}")
+    public void rebuild() {
+        try {
+            Index rebuilt = new Index();
+            for (Collaboration collaboration : collaborationRepository.findByStatus("OPEN")) {
+                rebuilt.add(collaboration);
+            }
+            index = rebuilt;
+            log.debug("Collaboration index holds {} open posts", rebuilt.open.size());
+        } catch (Exception e) {
+            log.warn("Failed to rebuild collaboration index: {}", e.getMessage());
+        }
+    }
+
+    public Collaboration post(Collaboration collaboration) {
+        collaboration.setStatus("OPEN");
+        collaboration.setCreatedAt(LocalDateTime.now());
+        Collaboration saved = collaborationRepository.save(collaboration);
+        index.add(saved);
+        invalidationBus.publish(TOPIC, List.of(saved.getId()));
+        notifyMatchingVendors(saved);
+        return saved;
+    }
+
+    // vendorSlug is the authenticated vendor's; the update re-checks ownership so it can't be raced
+    public Optional<Collaboration> close(String id, String vendorSlug) {
+        Collaboration collaboration = collaborationRepository.findById(id).orElse(null);
+        if (collaboration == null) {
+            return Optional.empty();
+        }
+        if (vendorSlug == null || !vendorSlug.equals(collaboration.getPostedByVendorSlug())) {
+            throw new AccessDeniedException("Only the posting vendor can close this collaboration");
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id).and("postedByVendorSlug").is(vendorSlug)),
+                new Update().set("status", "CLOSED"), Collaboration.class);
+        collaboration.setStatus("CLOSED");
+        index.remove(id);
+        invalidationBus.publish(TOPIC, List.of(id));
+        return Optional.of(collaboration);
+    }
+
+    @Override
+    public String topic() {
+        return TOPIC;
+    }
+
+    // A post was created or closed on another node; re-read it and add or drop it here
+    @Override
+    public void onInvalidate(Collection<String> ids) {
+        Index current = index;
+        ids.forEach(current::remove);
+        for (Collaboration collaboration : collaborationRepository.findAllById(ids)) {
+            if ("OPEN".equals(collaboration.getStatus())) {
+                current.add(collaboration);
+            }
+        }
+    }
+
+    @Override
+    public void onFlush() {
+        rebuild();
+    }
+
+    // Open posts wanting any of the vendor's service types, in its city or anywhere, newest first
+    public CollaborationPage matches(Vendor vendor, String cursor, int limit) {
+        Set<String> locations = vendor.getCity() != null && !vendor.getCity().isBlank()
+                ? Set.of(location(vendor.getCity()), ANYWHERE)
+                : null;
+        Index current = index;
+        List<NavigableSet<Posting>> lists = new ArrayList<>();
+        for (String type : serviceTypes(vendor)) {
+            Map<String, NavigableSet<Posting>> byLocation = current.postings.get(type);
+            if (byLocation == null) continue;
+            if (locations == null) {
+                lists.addAll(byLocation.values());
+            } else {
+                for (String location : locations) {
+                    NavigableSet<Posting> postings = byLocation.get(location);
+                    if (postings != null) lists.add(postings);
+                }
+            }
+        }
+        return page(current, lists, vendor.getSlug(), cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    // Unpaged, like the old /search; the optional filters are answered from the index
+    public List<Collaboration> search(String type, String location) {
+        Index current = index;
+        List<NavigableSet<Posting>> lists = new ArrayList<>();
+        boolean byType = type != null && !type.isBlank();
+        boolean byLocation = location != null && !location.isBlank();
+        if (!byType && !byLocation) {
+            lists.add(current.all);
+        } else {
+            Set<String> locations = byLocation ? Set.of(location(location), ANYWHERE) : null;
+            Iterable<Map<String, NavigableSet<Posting>>> types = byType
+                    ? List.of(current.postings.getOrDefault(term(type), Map.of()))
+                    : current.postings.values();
+            for (Map<String, NavigableSet<Posting>> postings : types) {
+                if (locations == null) {
+                    lists.addAll(postings.values());
+                    continue;
+                }
+                for (String l : locations) {
+                    NavigableSet<Posting> list = postings.get(l);
+                    if (list != null) lists.add(list);
+                }
+            }
+        }
+        return page(current, lists, null, null, Integer.MAX_VALUE).getCollaborations();
+    }
+
+    // k-way merge of the sorted posting lists; a post listed under several types is emitted once
+    private CollaborationPage page(Index current, List<NavigableSet<Posting>> lists, String excludeSlug,
+                                   String cursor, int pageSize) {
+        Posting after = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : null;
+
+        PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> NEWEST_FIRST.compare(a.posting, b.posting));
+        for (NavigableSet<Posting> postings : lists) {
+            Iterator<Posting> it = (after != null ? postings.tailSet(after, false) : postings).iterator();
+            if (it.hasNext()) heads.add(new Head(it.next(), it));
+        }
+
+        List<Collaboration> collaborations = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        Posting last = null;
+        boolean hasMore = false;
+        while (!heads.isEmpty()) {
+            Head head = heads.poll();
+            Posting posting = head.posting;
+            if (head.rest.hasNext()) heads.add(new Head(head.rest.next(), head.rest));
+            if (!seen.add(posting.id())) continue;
+
+            Collaboration collaboration = current.open.get(posting.id());
+            if (collaboration == null) continue;
+            if (excludeSlug != null && excludeSlug.equals(collaboration.getPostedByVendorSlug())) continue;
+            if (collaborations.size() == pageSize) {
+                hasMore = true;
+                break;
+            }
+            collaborations.add(collaboration);
+            last = posting;
+        }
+
+        CollaborationPage page = new CollaborationPage();
+        page.setCollaborations(collaborations);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            page.setNextCursor(encodeCursor(last));
+        }
+        return page;
+    }
+
+    // Recipients are matched on the same normalized terms the feed indexes, services included; Mongo
+    // only narrows the candidates with case-insensitive matches
+    private void notifyMatchingVendors(Collaboration collaboration) {
+        if (collaboration.getLookingFor() == null) return;
+        Set<String> wanted = new HashSet<>();
+        collaboration.getLookingFor().stream()
+                .filter(type -> type != null && !type.isBlank())
+                .forEach(type -> wanted.add(term(type)));
+        if (wanted.isEmpty()) return;
+        try {
+            List<Criteria> anyType = new ArrayList<>();
+            for (String type : wanted) {
+                Pattern pattern = Pattern.compile("^\\s*" + Pattern.quote(type) + "\\s*$", Pattern.CASE_INSENSITIVE);
+                anyType.add(Criteria.where("vendorType").regex(pattern));
+                anyType.add(Criteria.where("category").regex(pattern));
+                anyType.add(Criteria.where("services").regex(pattern));
+            }
+            Query query = Query.query(new Criteria().andOperator(
+                    Criteria.where("status").is("ACTIVE"),
+                    new Criteria().orOperator(anyType)));
+            query.fields().include("slug", "email", "city", "vendorType", "category", "services");
+            String location = location(collaboration.getLocation());
+
+            List<Notification> notifications = new ArrayList<>();
+            LocalDateTime now = LocalDateTime.now();
+            for (Vendor vendor : mongoTemplate.find(query, Vendor.class)) {
+                if (vendor.getEmail() == null || vendor.getSlug().equals(collaboration.getPostedByVendorSlug())) continue;
+                if (Collections.disjoint(serviceTypes(vendor), wanted)) continue;
+                if (!location.equals(ANYWHERE) && vendor.getCity() != null && !location(vendor.getCity()).equals(location)) continue;
+
+                Notification notification = new Notification();
+                notification.setUserId(vendor.getEmail()); // notifications are keyed by email
+                notification.setType("COLLABORATION");
+                notification.setTitle("New Collaboration Match");
+                notification.setMessage(collaboration.getTitle());
+                notification.setLink("/collaboration/" + collaboration.getId());
+                notification.setCreatedAt(now);
+                notifications.add(notification);
+            }
+            if (!notifications.isEmpty()) {
+                mongoTemplate.insertAll(notifications);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to notify vendors of collaboration {}: {}", collaboration.getId(), e.getMessage());
+        }
+    }
+
+    private static Set<String> serviceTypes(Vendor vendor) {
+        Set<String> types = new HashSet<>();
+        if (vendor.getVendorType() != null) types.add(term(vendor.getVendorType()));
+        if (vendor.getCategory() != null) types.add(term(vendor.getCategory()));
+        if (vendor.getServices() != null) {
+            vendor.getServices().stream().filter(s -> s != null).forEach(s -> types.add(term(s)));
+        }
+        return types;
+    }
+
+    private static String term(String value) {
+        return value.trim().toLowerCase();
+    }
+
+    // "Mumbai, Maharashtra" and "mumbai" index under the same city
+    private static String location(String value) {
+        if (value == null || value.isBlank()) return ANYWHERE;
+        int comma = value.indexOf(',');
+        return term(comma >= 0 ? value.substring(0, comma) : value);
+    }
+
+    private static String encodeCursor(Posting last) {
+        String key = last.createdAt() + "|" + last.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Posting decodeCursor(String cursor) {
+        try {
+            String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (key.length != 2) throw new IllegalArgumentException("Invalid cursor");
+            return new Posting(LocalDateTime.parse(key[0]), key[1]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private record Posting(LocalDateTime createdAt, String id) {}
+
+    private record Head(Posting posting, Iterator<Posting> rest) {}
+
+    private static class Index {
+        private final Map<String, Collaboration> open = new ConcurrentHashMap<>();
+        private final NavigableSet<Posting> all = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+        private final Map<String, Map<String, NavigableSet<Posting>>> postings = new ConcurrentHashMap<>();
+
+        void add(Collaboration collaboration) {
+            if (collaboration.getId() == null) return;
+            LocalDateTime createdAt = collaboration.getCreatedAt() != null ? collaboration.getCreatedAt() : LocalDateTime.MIN;
+            Posting posting = new Posting(createdAt, collaboration.getId());
+            open.put(collaboration.getId(), collaboration);
+            all.add(posting);
+            if (collaboration.getLookingFor() == null) return;
+            String location = location(collaboration.getLocation());
+            for (String type : collaboration.getLookingFor()) {
+                if (type == null || type.isBlank()) continue;
+                postings.computeIfAbsent(term(type), t -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(location, l -> new ConcurrentSkipListSet<>(NEWEST_FIRST))
+                        .add(posting);
+            }
+        }
+
+        void remove(String id) {
+            Collaboration collaboration = open.remove(id);
+            if (collaboration == null) return;
+            LocalDateTime createdAt = collaboration.getCreatedAt() != null ? collaboration.getCreatedAt() : LocalDateTime.MIN;
+            Posting posting = new Posting(createdAt, id);
+            all.remove(posting);
+            if (collaboration.getLookingFor() == null) return;
+            String location = location(collaboration.getLocation());
+            for (String type : collaboration.getLookingFor()) {
+                if (type == null) continue;
+                Map<String, NavigableSet<Posting>> byLocation = postings.get(term(type));
+                if (byLocation == null) continue;
+                NavigableSet<Posting> list = byLocation.get(location);
+                if (list != null) list.remove(posting);
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.marketplace.service;
+
+import com.marketplace.model.Credential;
+import com.marketplace.repository.CredentialRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Optional;
+
+// Login index over both account collections, keyed by normalized email. Signup claims the entry with an
+// insert before the account is saved, password changes update only the owning account's hash, and the
+// backfill copies accounts that predate the collection without ever overwriting an entry.
+@Slf4j
+@Service
+public class CredentialService {
+
+    public static final String USER = "USER";
+    public static final String VENDOR = "VENDOR";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final CredentialRepository credentialRepository;
+    private final MongoTemplate mongoTemplate;
+    private final boolean backfillEnabled;
+
+    private volatile boolean backfilled;
+
+    public CredentialService(CredentialRepository credentialRepository,
+                             MongoTemplate mongoTemplate,
+                             @Value("${credentials.backfill.enabled:true}") boolean backfillEnabled) {
+        this.credentialRepository = credentialRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.backfillEnabled = backfillEnabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!backfillEnabled) {
+            log.info("Credential backfill disabled, assuming credentials are complete");
+            backfilled = true;
+            return;
+        }
+        Thread worker = new Thread(this::backfill, "credential-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Until the backfill has finished, a missing credential doesn't prove the account doesn't exist
+    public boolean isBackfilled() {
+        return backfilled;
+    }
+
+    public Optional<Credential> find(String email) {
+        if (email == null) return Optional.empty();
+        return credentialRepository.findById(normalize(email));
+    }
+
+    // Claims the email for a new account; the insert is the only write, so a signup can never take over
+    // an entry that belongs to someone else. Returns false when another account already holds it.
+    public boolean claim(String accountType, String accountId, String email, String role, String passwordHash) {
+        Instant now = Instant.now();
+        Credential credential = new Credential();
+        credential.setEmail(normalize(email));
+        credential.setAccountType(accountType);
+        credential.setAccountId(accountId);
+        credential.setAccountEmail(email);
+        credential.setRole(role);
+        credential.setPasswordHash(passwordHash);
+        credential.setCreatedAt(now);
+        credential.setUpdatedAt(now);
+        try {
+            mongoTemplate.insert(credential);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return find(email).map(existing -> accountId.equals(existing.getAccountId())).orElse(false);
+        }
+    }
+
+    // Undoes a claim whose account insert failed; only the claiming account's entry is removed
+    public void release(String email, String accountId) {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(normalize(email)).and("accountId").is(accountId)),
+                Credential.class);
+    }
+
+    // Records an account that already exists: the first one becomes the entry, any other account with the
+    // same normalized email is appended as an alternate. Nothing already stored is overwritten.
+    public void link(String accountType, String accountId, String email, String role, String passwordHash) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Credential.class);
+        addLink(bulk, accountType, accountId, email, role, passwordHash);
+        bulk.execute();
+    }
+
+    // Only the entry or alternate belonging to accountId changes; an account the backfill hasn't reached
+    // yet is linked instead, with the new hash
+    public void updatePassword(String accountType, String accountId, String email, String role, String passwordHash) {
+        Instant now = Instant.now();
+        String id = normalize(email);
+        long matched = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(id).and("accountId").is(accountId)),
+                new Update().set("passwordHash", passwordHash).set("updatedAt", now),
+                Credential.class).getMatchedCount();
+        if (matched == 0) {
+            matched = mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(id).and("alternates.accountId").is(accountId)),
+                    new Update().set("alternates.$.passwordHash", passwordHash).set("updatedAt", now),
+                    Credential.class).getMatchedCount();
+        }
+        if (matched == 0) {
+            link(accountType, accountId, email, role, passwordHash);
+        }
+    }
+
+    public void backfill() {
+        try {
+            long start = System.currentTimeMillis();
+            // Users first: the legacy login tried users before vendors, so a user owns a shared email and
+            // the vendor is kept as an alternate
+            long users = copy("users", "password", USER);
+            long vendors = copy("vendors", "passwordHash", VENDOR);
+            backfilled = true;
+            log.info("Credential backfill checked {} users and {} vendors in {} ms",
+                    users, vendors, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Credential backfill failed, login keeps falling back to account lookups: {}", e.getMessage());
+        }
+    }
+
+    private long copy(String collection, String hashField, String accountType) {
+        Document projection = new Document("email", 1).append("role", 1).append(hashField, 1);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Credential.class);
+        int pending = 0;
+        long seen = 0;
+
+        for (Document account : mongoTemplate.getCollection(collection)
+                .find()
+                .projection(projection)
+                .batchSize(BATCH_SIZE)) {
+            String email = account.getString("email");
+            String hash = account.getString(hashField);
+            if (email == null || hash == null) continue;
+
+            addLink(bulk, accountType, account.get("_id").toString(), email, account.getString("role"), hash);
+            seen++;
+            if (++pending == BATCH_SIZE) {
+                bulk.execute();
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Credential.class);
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+        return seen;
+    }
+
+    // Two writes that commute, so they are safe in an unordered bulk: the upsert only creates a missing
+    // entry, and the push only adds the account to an entry owned by some other account
+    private static void addLink(BulkOperations bulk, String accountType, String accountId, String email,
+                                String role, String passwordHash) {
+        Instant now = Instant.now();
+        String id = normalize(email);
+        bulk.upsert(
+                Query.query(Criteria.where("_id").is(id)),
+                new Update()
+                        .setOnInsert("accountType", accountType)
+                        .setOnInsert("accountId", accountId)
+                        .setOnInsert("accountEmail", email)
+                        .setOnInsert("role", role)
+                        .setOnInsert("passwordHash", passwordHash)
+                        .setOnInsert("createdAt", now)
+                        .setOnInsert("updatedAt", now));
+
+        Credential.Account alternate = new Credential.Account();
+        alternate.setAccountType(accountType);
+        alternate.setAccountId(accountId);
+        alternate.setAccountEmail(email);
+        alternate.setRole(role);
+        alternate.setPasswordHash(passwordHash);
+        bulk.updateOne(
+                Query.query(Criteria.where("_id").is(id)
+                        .and("accountId").ne(accountId)
+                        .and("alternates.accountId").ne(accountId)),
+                new Update().push("alternates", alternate).set("updatedAt", now));
+    }
+
+    public static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,119 @@
+package com.marketplace.service;
+
+import com.marketplace.model.Subscription;
+import com.marketplace.model.vendor.Vendor;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Enforces subscription end dates and promotion windows. Each job selects by an indexed range, changes
+// rows with updateMulti and re-checks its condition in the update filter, so reruns and overlapping
+// runs are no-ops. Runs under a job lease so only one instance does the work.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpiryService {
+
+    public static final String SUBSCRIPTIONS_JOB = "expire-subscriptions";
+    public static final String PROMOTIONS_JOB = "expire-promotions";
+    public static final String BASIC_PLAN = "BASIC";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final JobLeaseService jobLeaseService;
+    private final VendorProfileCache vendorProfileCache;
+    private final VendorRankingIndex vendorRankingIndex;
+
+    @Scheduled(fixedDelayString = "${jobs.expiry.interval:PT5M}", initialDelayString = "${jobs.expiry.initial-delay:PT1M}")
+    public void expireAll() {
+        try {
+            jobLeaseService.run(SUBSCRIPTIONS_JOB, this::expireSubscriptions);
+            jobLeaseService.run(PROMOTIONS_JOB, this::expirePromotions);
+        } catch (Exception e) {
+            log.warn("Expiry run failed, will retry next interval: {}", e.getMessage());
+        }
+    }
+
+    // Auto-renewing plans are left for billing to renew or cancel; only lapsed plans are expired here
+    public long expireSubscriptions() {
+        LocalDate today = LocalDate.now();
+        Criteria lapsed = Criteria.where("status").is("ACTIVE")
+                .and("endDate").lt(today)
+                .and("autoRenew").ne(true);
+        long expired = 0;
+        Set<String> vendorSlugs = new HashSet<>();
+        while (true) {
+            Query batch = Query.query(lapsed).limit(BATCH_SIZE);
+            batch.fields().include("_id", "vendorSlug");
+            List<Subscription> subscriptions = mongoTemplate.find(batch, Subscription.class);
+            if (subscriptions.isEmpty()) break;
+
+            List<String> ids = new ArrayList<>();
+            for (Subscription subscription : subscriptions) {
+                ids.add(subscription.getId());
+                if (subscription.getVendorSlug() != null) vendorSlugs.add(subscription.getVendorSlug());
+            }
+            UpdateResult result = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("_id").in(ids).andOperator(lapsed)),
+                    new Update().set("status", "EXPIRED"),
+                    Subscription.class);
+            expired += result.getModifiedCount();
+            if (subscriptions.size() < BATCH_SIZE || result.getModifiedCount() == 0) break;
+        }
+        if (vendorSlugs.isEmpty()) return expired;
+
+        // A vendor that still has another active plan keeps its tier
+        Query stillActive = Query.query(Criteria.where("vendorSlug").in(vendorSlugs).and("status").is("ACTIVE"));
+        List<String> covered = mongoTemplate.findDistinct(stillActive, "vendorSlug", Subscription.class, String.class);
+        vendorSlugs.removeAll(covered);
+        if (vendorSlugs.isEmpty()) return expired;
+
+        UpdateResult downgraded = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("slug").in(vendorSlugs).and("subscriptionPlan").ne(BASIC_PLAN)),
+                new Update().set("subscriptionPlan", BASIC_PLAN).set("updatedAt", Instant.now()),
+                Vendor.class);
+        vendorProfileCache.invalidateAll(vendorSlugs);
+        log.info("Expired {} subscriptions, downgraded {} vendors", expired, downgraded.getModifiedCount());
+        return expired + downgraded.getModifiedCount();
+    }
+
+    public long expirePromotions() {
+        Instant now = Instant.now();
+        Criteria ended = Criteria.where("promoted").is(true).and("promotedUntil").lt(now);
+        long expired = 0;
+        while (true) {
+            Query batch = Query.query(ended).limit(BATCH_SIZE);
+            batch.fields().include("slug");
+            List<Vendor> vendors = mongoTemplate.find(batch, Vendor.class);
+            if (vendors.isEmpty()) break;
+
+            List<String> slugs = vendors.stream().map(Vendor::getSlug).toList();
+            UpdateResult result = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("slug").in(slugs).andOperator(ended)),
+                    new Update().set("promoted", false).set("updatedAt", now),
+                    Vendor.class);
+            vendorProfileCache.invalidateAll(slugs);
+            vendorRankingIndex.refresh(slugs);
+            expired += result.getModifiedCount();
+            if (vendors.size() < BATCH_SIZE || result.getModifiedCount() == 0) break;
+        }
+        if (expired > 0) {
+            log.info("Ended {} vendor promotions", expired);
+        }
+        return expired;
+    }
+}
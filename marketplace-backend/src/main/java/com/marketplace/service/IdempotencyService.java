@@ -0,0 +1,310 @@
+package com.marketplace.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marketplace.config.RateLimitProperties;
+import com.marketplace.model.IdempotencyRecord;
+import com.marketplace.util.ClientIp;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+// Idempotency-Key support for create endpoints. The first request with a key runs the write and its
+// response is kept in idempotency_keys (TTL-expired) and a local cache; replays get that response back
+// without touching the write path. Duplicates racing on one node wait for the first execution; across
+// nodes the IN_PROGRESS record makes the loser answer 409 until the winner has finished. Keys are per
+// caller (principal, or client address when anonymous), so two clients reusing a key never collide.
+// A node keeps renewing the locks it holds, including ones whose completion it could not save yet, so
+// another node only takes a key over once its holder has really died.
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+    private static final String COMPLETED = "COMPLETED";
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    // A claim not renewed for this long belongs to a node that died mid-request and may be taken over
+    private final Duration lockTime;
+    private final RateLimitProperties rateLimitProperties;
+    private final Cache<String, StoredResponse> completed;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    // Keys this node has claimed, and completed ones whose COMPLETED update has not been saved yet
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, StoredResponse> unsaved = new ConcurrentHashMap<>();
+
+    public IdempotencyService(MongoTemplate mongoTemplate,
+                              ObjectMapper objectMapper,
+                              RateLimitProperties rateLimitProperties,
+                              @Value("${idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${idempotency.lock-time:PT30S}") Duration lockTime,
+                              @Value("${idempotency.cache-size:10000}") long cacheSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.rateLimitProperties = rateLimitProperties;
+        this.ttl = ttl;
+        this.lockTime = lockTime;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // Requests without a key run as before. The body is fingerprinted up front because the action may
+    // mutate it (ids, timestamps) before it is serialized into the response.
+    public ResponseEntity<?> execute(String scope, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(Map.of("error", HEADER + " must be at most " + MAX_KEY_LENGTH + " characters"));
+        }
+        String id = scope + ":" + caller() + ":" + key;
+        String requestHash = hash(request);
+
+        StoredResponse cached = completed.getIfPresent(id);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> leader = inFlight.putIfAbsent(id, execution);
+        if (leader != null) {
+            StoredResponse shared = leader.join();
+            return shared != null ? replay(shared, requestHash) : inProgress();
+        }
+
+        try {
+            return run(id, requestHash, action, execution);
+        } finally {
+            // No-op when run() completed it; otherwise waiters are told to retry
+            execution.complete(null);
+            inFlight.remove(id, execution);
+        }
+    }
+
+    private ResponseEntity<?> run(String id, String requestHash, Supplier<ResponseEntity<?>> action,
+                                  CompletableFuture<StoredResponse> execution) {
+        IdempotencyRecord existing = claim(id, requestHash);
+        if (existing != null) {
+            if (COMPLETED.equals(existing.getStatus())) {
+                StoredResponse stored = new StoredResponse(existing.getRequestHash(), existing.getHttpStatus(), existing.getResponseBody());
+                completed.put(id, stored);
+                execution.complete(stored);
+                return replay(stored, requestHash);
+            }
+            if (!requestHash.equals(existing.getRequestHash())) {
+                return mismatch();
+            }
+            return inProgress();
+        }
+
+        held.add(id);
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(id);
+            throw e;
+        }
+        // Server errors are worth retrying, so the key is freed rather than pinned to the failure
+        if (response.getStatusCode().is5xxServerError()) {
+            release(id);
+            return response;
+        }
+
+        StoredResponse stored;
+        try {
+            stored = new StoredResponse(requestHash, response.getStatusCode().value(),
+                    response.getBody() != null ? objectMapper.writeValueAsString(response.getBody()) : null);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not store response for idempotency key {}: {}", id, e.getMessage());
+            release(id);
+            return response;
+        }
+        completed.put(id, stored);
+        execution.complete(stored);
+        // The write has happened; if its record can't be marked COMPLETED the lock must not lapse, or
+        // another node would take the key over and run the write again
+        if (!complete(id, stored) && !complete(id, stored)) {
+            unsaved.put(id, stored);
+        }
+        return response;
+    }
+
+    private boolean complete(String id, StoredResponse stored) {
+        try {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)),
+                    new Update()
+                            .set("status", COMPLETED)
+                            .set("httpStatus", stored.status())
+                            .set("responseBody", stored.body())
+                            .unset("lockedUntil")
+                            .set("expiresAt", Instant.now().plus(ttl)),
+                    IdempotencyRecord.class);
+            held.remove(id);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to complete idempotency key {}, retrying: {}", id, e.getMessage());
+            return false;
+        }
+    }
+
+    // Runs well inside lock-time, so a live holder's locks never lapse however long its write takes
+    @Scheduled(fixedDelayString = "${idempotency.renew-interval:PT10S}")
+    public void renewLocks() {
+        unsaved.forEach((id, stored) -> {
+            if (complete(id, stored)) {
+                unsaved.remove(id, stored);
+            }
+        });
+        if (held.isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("_id").in(held).and("status").is(IN_PROGRESS)),
+                    new Update().set("lockedUntil", Instant.now().plus(lockTime)),
+                    IdempotencyRecord.class);
+        } catch (RuntimeException e) {
+            log.warn("Failed to renew {} idempotency locks: {}", held.size(), e.getMessage());
+        }
+    }
+
+    // Returns null when this request now owns the key, otherwise the record that is in the way
+    private IdempotencyRecord claim(String id, String requestHash) {
+        Instant now = Instant.now();
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId(id);
+        record.setStatus(IN_PROGRESS);
+        record.setRequestHash(requestHash);
+        record.setLockedUntil(now.plus(lockTime));
+        record.setCreatedAt(now);
+        record.setExpiresAt(now.plus(ttl));
+        try {
+            mongoTemplate.insert(record);
+            return null;
+        } catch (DuplicateKeyException e) {
+            // Held or finished elsewhere; fall through to inspect it
+        }
+
+        IdempotencyRecord stale = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(id)
+                        .and("status").is(IN_PROGRESS)
+                        .and("requestHash").is(requestHash)
+                        .and("lockedUntil").lt(now)),
+                new Update().set("lockedUntil", now.plus(lockTime)),
+                FindAndModifyOptions.options().returnNew(true),
+                IdempotencyRecord.class);
+        if (stale != null) {
+            log.info("Took over abandoned idempotency key {}", id);
+            return null;
+        }
+        IdempotencyRecord existing = mongoTemplate.findById(id, IdempotencyRecord.class);
+        if (existing == null) {
+            // Released or expired in between; one more attempt settles it
+            try {
+                mongoTemplate.insert(record);
+                return null;
+            } catch (DuplicateKeyException e) {
+                existing = mongoTemplate.findById(id, IdempotencyRecord.class);
+            }
+        }
+        return existing != null ? existing : record;
+    }
+
+    private void release(String id) {
+        held.remove(id);
+        try {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(id).and("status").is(IN_PROGRESS)), IdempotencyRecord.class);
+        } catch (Exception e) {
+            log.warn("Failed to release idempotency key {}, it frees itself after {}: {}", id, lockTime, e.getMessage());
+        }
+    }
+
+    private String caller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return "ip:" + ClientIp.of(attributes.getRequest(),
+                    rateLimitProperties.isTrustForwardedFor(), rateLimitProperties.getTrustedProxies());
+        }
+        return "anonymous";
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            return mismatch();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status())
+                .header(REPLAYED_HEADER, "true");
+        if (stored.body() == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(stored.body());
+    }
+
+    private static ResponseEntity<?> inProgress() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header("Retry-After", "1")
+                .body(Map.of("error", "A request with this " + HEADER + " is still being processed"));
+    }
+
+    private static ResponseEntity<?> mismatch() {
+        return ResponseEntity.unprocessableEntity()
+                .body(Map.of("error", HEADER + " was already used with a different request body"));
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] json = request instanceof String s
+                    ? s.getBytes(StandardCharsets.UTF_8)
+                    : objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private record StoredResponse(String requestHash, int status, String body) {
+    }
+}
@@ -0,0 +1,249 @@
+package com.marketplace.service;
+
+import com.mongodb.CursorType;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Cross-node cache invalidation. Publishers append {origin, seq, topic, keys} to a capped collection;
+// every node tails it and hands other nodes' events to the matching InvalidationHandlers. Each origin
+// numbers its events 1, 2, 3..., so a skipped number means an event was lost (or the capped collection
+// rolled past us while the cursor was down) and every handler is flushed instead. The cursor reads in
+// insertion ($natural) order; ObjectIds come from each node's clock, so they say nothing about the order
+// events from different nodes were written in.
+@Slf4j
+@Service
+public class InvalidationBus {
+
+    private static final String HELLO = "bus";
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectProvider<InvalidationHandler> handlers;
+    private final boolean enabled;
+    private final String collection;
+    private final long sizeBytes;
+    private final long maxEvents;
+    private final String nodeId;
+
+    private final Map<String, Long> lastSeq = new ConcurrentHashMap<>();
+    private long seq;
+    private volatile ObjectId lastSeen;
+    private volatile boolean running;
+    private Thread tailer;
+
+    public InvalidationBus(MongoTemplate mongoTemplate,
+                           ObjectProvider<InvalidationHandler> handlers,
+                           @Value("${cache.invalidation-bus.enabled:true}") boolean enabled,
+                           @Value("${cache.invalidation-bus.collection:invalidation_events}") String collection,
+                           @Value("${cache.invalidation-bus.size-bytes:16777216}") long sizeBytes,
+                           @Value("${cache.invalidation-bus.max-events:50000}") long maxEvents,
+                           @Value("${cache.invalidation-bus.node-name:}") String nodeName) {
+        this.mongoTemplate = mongoTemplate;
+        this.handlers = handlers;
+        this.enabled = enabled;
+        this.collection = collection;
+        this.sizeBytes = sizeBytes;
+        this.maxEvents = maxEvents;
+        // Unique per start, so a restarted node's numbering never collides with its previous run
+        this.nodeId = (nodeName.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeName)
+                + ":" + UUID.randomUUID();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Invalidation bus disabled");
+            return;
+        }
+        try {
+            ensureCappedCollection();
+            // A tailable cursor needs a document to sit on; announcing ourselves guarantees there is one
+            publish(HELLO, List.of());
+            Document newest = mongoTemplate.getCollection(collection).find()
+                    .sort(new Document("$natural", -1)).limit(1).first();
+            lastSeen = newest != null ? newest.getObjectId("_id") : null;
+        } catch (Exception e) {
+            log.error("Invalidation bus could not start, caches will only converge on their own TTLs: {}", e.getMessage());
+            return;
+        }
+        running = true;
+        tailer = new Thread(this::tail, "invalidation-bus");
+        tailer.setDaemon(true);
+        tailer.start();
+        log.info("Invalidation bus started as {}", nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (tailer != null) {
+            tailer.interrupt();
+        }
+    }
+
+    // Local caches are already updated by the caller; this only tells the other nodes. No keys means
+    // "drop everything for this topic".
+    public void publish(String topic, Collection<String> keys) {
+        if (!enabled) return;
+        synchronized (this) {
+            // The number is used up even if the insert fails: peers then see a gap at our next event and
+            // flush, rather than keeping what this one should have invalidated
+            seq++;
+            Document event = new Document("origin", nodeId)
+                    .append("seq", seq)
+                    .append("topic", topic)
+                    .append("keys", new ArrayList<>(keys))
+                    .append("createdAt", new Date());
+            try {
+                mongoTemplate.getCollection(collection).insertOne(event);
+            } catch (Exception e) {
+                log.warn("Failed to publish {} invalidation for {} keys: {}", topic, keys.size(), e.getMessage());
+            }
+        }
+    }
+
+    private void tail() {
+        while (running) {
+            try {
+                resume();
+                MongoCollection<Document> events = mongoTemplate.getCollection(collection);
+                // No filter: the cursor starts at the oldest event and everything up to the last one we
+                // handled is skipped
+                boolean skipping = lastSeen != null;
+                try (MongoCursor<Document> cursor = events.find()
+                        .cursorType(CursorType.TailableAwait)
+                        .maxAwaitTime(1, TimeUnit.SECONDS)
+                        .iterator()) {
+                    while (running) {
+                        Document event = cursor.tryNext();
+                        if (event == null) {
+                            if (cursor.getServerCursor() == null) break;
+                            if (skipping) {
+                                // Caught up without passing it, so it was overwritten after resume() looked
+                                log.warn("Invalidation bus fell behind the capped collection, flushing all caches");
+                                flushAll();
+                                skipping = false;
+                            }
+                            continue;
+                        }
+                        ObjectId id = event.getObjectId("_id");
+                        if (skipping) {
+                            skipping = !id.equals(lastSeen);
+                            continue;
+                        }
+                        apply(event);
+                        lastSeen = id;
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) return;
+                log.warn("Invalidation bus cursor lost, reconnecting: {}", e.getMessage());
+            }
+            sleep();
+        }
+    }
+
+    // If the event we stopped at has been overwritten, whatever followed it is gone too
+    private void resume() {
+        if (lastSeen == null) return;
+        MongoCollection<Document> events = mongoTemplate.getCollection(collection);
+        if (events.find(new Document("_id", lastSeen)).limit(1).first() == null) {
+            log.warn("Invalidation bus fell behind the capped collection, flushing all caches");
+            flushAll();
+            Document newest = events.find().sort(new Document("$natural", -1)).limit(1).first();
+            lastSeen = newest != null ? newest.getObjectId("_id") : null;
+        }
+    }
+
+    private void apply(Document event) {
+        String origin = event.getString("origin");
+        if (nodeId.equals(origin)) return;
+
+        long eventSeq = ((Number) event.get("seq")).longValue();
+        Long previous = lastSeq.get(origin);
+        if (previous != null && eventSeq <= previous) return;
+        lastSeq.put(origin, eventSeq);
+        if (previous != null && eventSeq != previous + 1) {
+            log.warn("Missed invalidations {}..{} from {}, flushing all caches", previous + 1, eventSeq - 1, origin);
+            flushAll();
+            return;
+        }
+
+        String topic = event.getString("topic");
+        if (HELLO.equals(topic)) return;
+        List<String> keys = event.getList("keys", String.class, List.of());
+        for (InvalidationHandler handler : handlers) {
+            if (!handler.topic().equals(topic)) continue;
+            try {
+                if (keys.isEmpty()) {
+                    handler.onFlush();
+                } else {
+                    handler.onInvalidate(keys);
+                }
+            } catch (Exception e) {
+                log.warn("Invalidation handler for {} failed: {}", topic, e.getMessage());
+            }
+        }
+    }
+
+    private void flushAll() {
+        for (InvalidationHandler handler : handlers) {
+            try {
+                handler.onFlush();
+            } catch (Exception e) {
+                log.warn("Flush of {} failed: {}", handler.topic(), e.getMessage());
+            }
+        }
+    }
+
+    private void ensureCappedCollection() {
+        if (mongoTemplate.collectionExists(collection)) {
+            Document stats = mongoTemplate.executeCommand(new Document("collStats", collection));
+            if (!Boolean.TRUE.equals(stats.getBoolean("capped"))) {
+                throw new IllegalStateException(collection + " exists but is not capped");
+            }
+            return;
+        }
+        try {
+            mongoTemplate.createCollection(collection, CollectionOptions.empty()
+                    .capped()
+                    .size(sizeBytes)
+                    .maxDocuments(maxEvents));
+        } catch (UncategorizedMongoDbException | MongoCommandException e) {
+            // Another node created it first
+            if (!mongoTemplate.collectionExists(collection)) throw e;
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.marketplace.service;
+
+import java.util.Collection;
+
+// A node-local cache kept in step with other instances through the InvalidationBus. Handlers only
+// touch local state: they are called for events published elsewhere and must not publish again.
+public interface InvalidationHandler {
+
+    String topic();
+
+    void onInvalidate(Collection<String> keys);
+
+    // Events were missed, so nothing cached for this topic can be trusted
+    void onFlush();
+}
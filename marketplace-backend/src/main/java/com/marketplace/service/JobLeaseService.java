@@ -0,0 +1,109 @@
+package com.marketplace.service;
+
+import com.marketplace.model.JobLease;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+// Runs a scheduled job on one instance at a time. The lock is a job_leases document claimed with
+// findAndModify: a lease can be taken when it has expired or is already ours, and a second instance
+// racing to create it loses on the _id. Jobs must be idempotent, since a lease can lapse mid-run.
+@Slf4j
+@Service
+public class JobLeaseService {
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration defaultLeaseTime;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + ":" + UUID.randomUUID();
+
+    public JobLeaseService(MongoTemplate mongoTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${jobs.lease-time:PT10M}") Duration defaultLeaseTime) {
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+        this.defaultLeaseTime = defaultLeaseTime;
+    }
+
+    public boolean run(String job, LongSupplier work) {
+        return run(job, defaultLeaseTime, work);
+    }
+
+    // Returns false when another instance holds the lease; the work reports how many rows it touched
+    public boolean run(String job, Duration leaseTime, LongSupplier work) {
+        if (!tryAcquire(job, leaseTime)) {
+            log.debug("Job {} is running elsewhere, skipping", job);
+            return false;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        long affected = 0;
+        try {
+            affected = work.getAsLong();
+            Counter.builder("jobs.affected")
+                    .description("Rows changed by scheduled jobs")
+                    .tag("job", job)
+                    .register(meterRegistry)
+                    .increment(affected);
+            return true;
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("jobs.duration")
+                    .description("Scheduled job run time")
+                    .tag("job", job)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            release(job, affected);
+        }
+    }
+
+    private boolean tryAcquire(String job, Duration leaseTime) {
+        Instant now = Instant.now();
+        Query claimable = Query.query(Criteria.where("_id").is(job).orOperator(
+                Criteria.where("lockedUntil").lt(now),
+                Criteria.where("owner").is(owner)));
+        Update claim = new Update()
+                .set("owner", owner)
+                .set("lockedUntil", now.plus(leaseTime))
+                .set("lastStartedAt", now);
+        try {
+            return mongoTemplate.findAndModify(claimable, claim,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), JobLease.class) != null;
+        } catch (DuplicateKeyException e) {
+            // The lease exists and is held by someone else, so the upsert tried to insert a second one
+            return false;
+        }
+    }
+
+    private void release(String job, long affected) {
+        Instant now = Instant.now();
+        try {
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(job).and("owner").is(owner)),
+                    new Update()
+                            .set("lockedUntil", now)
+                            .set("lastFinishedAt", now)
+                            .set("lastAffected", affected),
+                    JobLease.class);
+        } catch (Exception e) {
+            log.warn("Failed to release lease for {}, it will lapse on its own: {}", job, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.marketplace.service;
+
+import com.marketplace.dto.LeadRequest;
+import com.marketplace.dto.LeadResult;
+import com.marketplace.model.Notification;
+import com.marketplace.model.QuoteRequest;
+import com.marketplace.model.vendor.Vendor;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+// Fans one customer request out to the best matching vendors. The per-vendor QuoteRequest copies go
+// in with a single unordered insert and the vendor notifications with one insertAll, so 20 vendors
+// cost about as much as one quote. A unique dedupeKey per customer/request/vendor/day turns repeat
+// submissions into duplicate-key errors that are skipped rather than failing the batch.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeadDistributionService {
+
+    public static final int DEFAULT_VENDORS = 5;
+    public static final int MAX_VENDORS = 20;
+    private static final double DEFAULT_RADIUS_KM = 25;
+    // Candidates considered before ranking by promotion and rating
+    private static final int CANDIDATE_POOL = 200;
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final TrendingService trendingService;
+
+    public LeadResult distribute(LeadRequest request) {
+        if (request.getCustomerEmail() == null || request.getCustomerEmail().isBlank()) {
+            throw new IllegalArgumentException("Customer email is required");
+        }
+        if (request.getVendorType() == null || request.getVendorType().isBlank()) {
+            throw new IllegalArgumentException("Vendor type is required");
+        }
+        int wanted = request.getMaxVendors() != null ? request.getMaxVendors() : DEFAULT_VENDORS;
+        if (wanted < 1 || wanted > MAX_VENDORS) {
+            throw new IllegalArgumentException("maxVendors must be between 1 and " + MAX_VENDORS);
+        }
+
+        List<Vendor> vendors = selectVendors(request, wanted);
+        String leadId = new ObjectId().toHexString();
+        LocalDateTime now = LocalDateTime.now();
+        List<QuoteRequest> copies = new ArrayList<>();
+        for (Vendor vendor : vendors) {
+            QuoteRequest quote = new QuoteRequest();
+            quote.setId(new ObjectId().toHexString());
+            quote.setVendorSlug(vendor.getSlug());
+            quote.setCustomerName(request.getCustomerName());
+            quote.setCustomerEmail(request.getCustomerEmail());
+            quote.setCustomerMobile(request.getCustomerMobile());
+            quote.setServiceRequested(request.getServiceRequested());
+            quote.setProjectDescription(request.getProjectDescription());
+            quote.setBudget(request.getBudget());
+            quote.setPreferredDate(request.getPreferredDate());
+            quote.setStatus("NEW");
+            quote.setLeadId(leadId);
+            quote.setDedupeKey(dedupeKey(request, vendor.getSlug(), now.toLocalDate()));
+            quote.setCreatedAt(now);
+            quote.setUpdatedAt(now);
+            copies.add(quote);
+        }
+
+        Set<Integer> rejected = insert(copies);
+        List<QuoteRequest> created = new ArrayList<>();
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < copies.size(); i++) {
+            if (rejected.contains(i)) continue;
+            QuoteRequest quote = copies.get(i);
+            created.add(quote);
+            trendingService.recordQuote(quote.getVendorSlug());
+
+            Notification notification = new Notification();
+            notification.setUserId(vendors.get(i).getEmail()); // notifications are keyed by email
+            notification.setType("QUOTE_REQUEST");
+            notification.setTitle("New Quote Request");
+            notification.setMessage("You have received a new quote request"
+                    + (quote.getServiceRequested() != null ? " for " + quote.getServiceRequested() : ""));
+            notification.setLink("/dashboard/vendor/quotes");
+            notification.setCreatedAt(now);
+            notifications.add(notification);
+        }
+        if (!notifications.isEmpty()) {
+            try {
+                mongoTemplate.insertAll(notifications);
+            } catch (Exception e) {
+                log.warn("Failed to notify vendors of lead {}: {}", leadId, e.getMessage());
+            }
+        }
+
+        LeadResult result = new LeadResult();
+        result.setLeadId(leadId);
+        result.setQuotes(created);
+        result.setDuplicates(rejected.size());
+        return result;
+    }
+
+    private List<Vendor> selectVendors(LeadRequest request, int wanted) {
+        Criteria criteria = new Criteria().andOperator(
+                Criteria.where("status").is("ACTIVE"),
+                new Criteria().orOperator(
+                        Criteria.where("vendorType").is(request.getVendorType()),
+                        Criteria.where("category").is(request.getVendorType())));
+        Query query;
+        if (request.getLatitude() != null && request.getLongitude() != null) {
+            double radiusKm = request.getRadiusKm() != null ? request.getRadiusKm() : DEFAULT_RADIUS_KM;
+            // $nearSphere returns candidates closest first, which the stable sort below keeps as the tiebreak
+            query = Query.query(criteria.and("location")
+                    .nearSphere(new GeoJsonPoint(request.getLongitude(), request.getLatitude()))
+                    .maxDistance(radiusKm * 1000));
+        } else if (request.getCity() != null && !request.getCity().isBlank()) {
+            query = Query.query(criteria.and("city").is(request.getCity()));
+        } else {
+            throw new IllegalArgumentException("A city or a location is required");
+        }
+        query.fields().include("slug", "email", "rating", "reviewCount", "promoted", "promotedUntil");
+        query.limit(CANDIDATE_POOL);
+
+        Instant now = Instant.now();
+        List<Vendor> candidates = new ArrayList<>(mongoTemplate.find(query, Vendor.class));
+        candidates.sort(Comparator
+                .comparing((Vendor v) -> !isPromoted(v, now))
+                .thenComparing(v -> v.getRating() != null ? v.getRating() : 0.0, Comparator.reverseOrder())
+                .thenComparing(v -> v.getReviewCount() != null ? v.getReviewCount() : 0, Comparator.reverseOrder()));
+        return candidates.size() > wanted ? candidates.subList(0, wanted) : candidates;
+    }
+
+    // Returns the positions rejected as duplicates; anything else is rethrown
+    private Set<Integer> insert(List<QuoteRequest> copies) {
+        Set<Integer> rejected = new HashSet<>();
+        if (copies.isEmpty()) return rejected;
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, QuoteRequest.class)
+                    .insert(copies)
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) throw e;
+                rejected.add(error.getIndex());
+            }
+        }
+        return rejected;
+    }
+
+    private static boolean isPromoted(Vendor vendor, Instant now) {
+        return vendor.isPromoted() && (vendor.getPromotedUntil() == null || vendor.getPromotedUntil().isAfter(now));
+    }
+
+    private static String dedupeKey(LeadRequest request, String vendorSlug, LocalDate day) {
+        String key = String.join("|",
+                request.getCustomerEmail().trim().toLowerCase(),
+                normalize(request.getServiceRequested()),
+                normalize(request.getProjectDescription()),
+                vendorSlug,
+                day.toString());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ").toLowerCase();
+    }
+}
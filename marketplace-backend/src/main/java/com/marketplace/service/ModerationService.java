@@ -0,0 +1,152 @@
+package com.marketplace.service;
+
+import com.marketplace.dto.ReviewPage;
+import com.marketplace.model.Review;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// Flagged-review queue served from the partial flagged_queue_idx, plus bulk actions that touch any
+// number of reviews in a constant number of round trips.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ModerationService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_BULK_SIZE = 10_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final RatingStatsService ratingStatsService;
+    private final VendorRollupService vendorRollupService;
+    private final PlatformRollupService platformRollupService;
+
+    // Oldest first, so nothing sits in the queue forever. Legacy reviews without createdAt sort before
+    // everything else, and a cursor can sit on one of them.
+    public ReviewPage queue(String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Criteria criteria = Criteria.where("flagged").is(true);
+        if (cursor != null && !cursor.isBlank()) {
+            String[] key = decodeCursor(cursor);
+            LocalDateTime createdAt = key[0].isEmpty() ? null : LocalDateTime.parse(key[0]);
+            criteria = createdAt == null
+                    ? criteria.orOperator(
+                            Criteria.where("createdAt").ne(null),
+                            Criteria.where("createdAt").is(null).and("id").gt(key[1]))
+                    : criteria.orOperator(
+                            Criteria.where("createdAt").gt(createdAt),
+                            Criteria.where("createdAt").is(createdAt).and("id").gt(key[1]));
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("id")))
+                .limit(pageSize + 1);
+        List<Review> reviews = mongoTemplate.find(query, Review.class);
+
+        ReviewPage page = new ReviewPage();
+        page.setHasMore(reviews.size() > pageSize);
+        if (page.isHasMore()) {
+            reviews = reviews.subList(0, pageSize);
+            Review last = reviews.get(pageSize - 1);
+            page.setNextCursor(encodeCursor(Objects.toString(last.getCreatedAt(), "") + "|" + last.getId()));
+        }
+        page.setReviews(reviews);
+        return page;
+    }
+
+    public UpdateResult unflag(Collection<String> reviewIds) {
+        checkBulkSize(reviewIds);
+        return mongoTemplate.updateMulti(
+                Query.query(Criteria.where("id").in(reviewIds)),
+                new Update().set("flagged", false).unset("flagReason"),
+                Review.class);
+    }
+
+    public long delete(Collection<String> reviewIds) {
+        checkBulkSize(reviewIds);
+        if (reviewIds.isEmpty()) return 0;
+
+        Query byIds = Query.query(Criteria.where("id").in(reviewIds));
+        Query ratingsOnly = Query.of(byIds);
+        ratingsOnly.fields().include("vendorSlug", "rating", "createdAt");
+        List<Review> doomed = mongoTemplate.find(ratingsOnly, Review.class);
+        if (doomed.isEmpty()) return 0;
+
+        DeleteResult result = mongoTemplate.remove(byIds, Review.class);
+
+        Map<String, Map<Integer, Long>> removed = new HashMap<>();
+        Map<String, Set<LocalDate>> days = new HashMap<>();
+        for (Review review : doomed) {
+            if (review.getVendorSlug() == null || review.getRating() == null) continue;
+            removed.computeIfAbsent(review.getVendorSlug(), slug -> new HashMap<>())
+                    .merge(review.getRating(), 1L, Long::sum);
+            if (review.getCreatedAt() != null) {
+                days.computeIfAbsent(review.getVendorSlug(), slug -> new HashSet<>())
+                        .add(review.getCreatedAt().toLocalDate());
+            }
+        }
+        if (result.getDeletedCount() == doomed.size()) {
+            ratingStatsService.removeReviews(removed);
+        } else {
+            // Someone else deleted part of the batch in between; recount rather than guess
+            log.warn("Deleted {} of {} reviews, recomputing ratings for {} vendors",
+                    result.getDeletedCount(), doomed.size(), removed.size());
+            ratingStatsService.refresh(removed.keySet());
+        }
+        try {
+            vendorRollupService.reviewsDeleted(days);
+        } catch (Exception e) {
+            log.warn("Failed to recompute review rollups for {} vendors, a rebuild will correct them: {}",
+                    days.size(), e.getMessage());
+        }
+        try {
+            Set<LocalDate> platformDays = new HashSet<>();
+            days.values().forEach(platformDays::addAll);
+            platformRollupService.reviewsDeleted(platformDays);
+        } catch (Exception e) {
+            log.warn("Failed to recompute platform review rollups, a rebuild will correct them: {}", e.getMessage());
+        }
+        return result.getDeletedCount();
+    }
+
+    private static void checkBulkSize(Collection<String> reviewIds) {
+        if (reviewIds.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_SIZE + " reviews per request");
+        }
+    }
+
+    // A missing createdAt is encoded as an empty segment
+    private static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            if (key.length != 2 || key[1].isEmpty()) throw new IllegalArgumentException("Invalid cursor");
+            if (!key[0].isEmpty()) LocalDateTime.parse(key[0]);
+            return key;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.marketplace.service;
+
+import com.marketplace.model.PageView;
+import com.marketplace.model.VisitorSketch;
+import com.marketplace.repository.VisitorSketchRepository;
+import com.marketplace.util.HyperLogLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Records profile views off the request path. Views are buffered and written with insertAll; each
+// vendor-day also gets a HyperLogLog of visitor fingerprints, merged into visitor_sketches on flush.
+@Slf4j
+@Service
+public class PageViewService {
+
+    private static final int MERGE_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+    private final VisitorSketchRepository visitorSketchRepository;
+    private final TrendingService trendingService;
+    private final int maxBuffered;
+    // Each pending sketch is 4 KB until the next flush, so the number of vendor-days is capped too
+    private final int maxPendingSketches;
+    private final Counter droppedViews;
+    private final Counter droppedVisitors;
+
+    private final Queue<PageView> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final Map<String, HyperLogLog> pendingSketches = new ConcurrentHashMap<>();
+
+    public PageViewService(MongoTemplate mongoTemplate,
+                           VisitorSketchRepository visitorSketchRepository,
+                           TrendingService trendingService,
+                           MeterRegistry meterRegistry,
+                           @Value("${analytics.page-views.max-buffered:50000}") int maxBuffered,
+                           @Value("${analytics.page-views.max-pending-sketches:5000}") int maxPendingSketches) {
+        this.mongoTemplate = mongoTemplate;
+        this.visitorSketchRepository = visitorSketchRepository;
+        this.trendingService = trendingService;
+        this.maxBuffered = maxBuffered;
+        this.maxPendingSketches = maxPendingSketches;
+        this.droppedViews = Counter.builder("page.views.dropped")
+                .description("Page views dropped because the write buffer was full")
+                .register(meterRegistry);
+        this.droppedVisitors = Counter.builder("page.views.visitors.dropped")
+                .description("Visitor fingerprints not sketched because too many vendor-days were pending a flush")
+                .register(meterRegistry);
+    }
+
+    public void record(String vendorSlug, String ipAddress, String userAgent, String referrer) {
+        trendingService.recordView(vendorSlug);
+
+        LocalDateTime now = LocalDateTime.now();
+        String fingerprint = ipAddress + "|" + userAgent;
+        String sketchId = VisitorSketch.idFor(vendorSlug, now.toLocalDate());
+        if (!pendingSketches.containsKey(sketchId) && pendingSketches.size() >= maxPendingSketches) {
+            droppedVisitors.increment();
+        } else {
+            // compute() is atomic per key, so an add can't land in a sketch that flush() has already taken
+            pendingSketches.compute(sketchId, (id, sketch) -> {
+                HyperLogLog hll = sketch != null ? sketch : new HyperLogLog();
+                hll.add(fingerprint);
+                return hll;
+            });
+        }
+
+        if (buffered.incrementAndGet() > maxBuffered) {
+            buffered.decrementAndGet();
+            droppedViews.increment();
+            return;
+        }
+        PageView view = new PageView();
+        view.setVendorSlug(vendorSlug);
+        view.setIpAddress(ipAddress);
+        view.setUserAgent(userAgent);
+        view.setReferrer(referrer);
+        view.setViewedAt(now);
+        buffer.add(view);
+    }
+
+    public long uniqueVisitors(String vendorSlug, int days) {
+        LocalDate today = LocalDate.now();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            ids.add(VisitorSketch.idFor(vendorSlug, today.minusDays(i)));
+        }
+        HyperLogLog union = new HyperLogLog();
+        for (VisitorSketch sketch : visitorSketchRepository.findAllById(ids)) {
+            union.merge(HyperLogLog.fromBytes(sketch.getRegisters()));
+        }
+        return union.estimate();
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.page-views.flush-interval:PT10S}")
+    public void flush() {
+        flushViews();
+        flushSketches();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void flushViews() {
+        List<PageView> batch = new ArrayList<>();
+        PageView view;
+        while ((view = buffer.poll()) != null) {
+            batch.add(view);
+        }
+        if (batch.isEmpty()) return;
+        buffered.addAndGet(-batch.size());
+        try {
+            mongoTemplate.insertAll(batch);
+        } catch (Exception e) {
+            log.warn("Failed to write {} page views: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private void flushSketches() {
+        for (String id : pendingSketches.keySet()) {
+            HyperLogLog delta = pendingSketches.remove(id);
+            if (delta == null) continue;
+            try {
+                merge(id, delta);
+            } catch (Exception e) {
+                // Put it back so the next flush retries; merging is idempotent
+                pendingSketches.merge(id, delta, (newer, failed) -> {
+                    newer.merge(failed);
+                    return newer;
+                });
+                log.warn("Failed to merge visitor sketch {}: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    // Read-merge-write guarded by @Version; other instances merging the same day just cause a retry
+    private void merge(String id, HyperLogLog delta) {
+        for (int attempt = 1; attempt <= MERGE_ATTEMPTS; attempt++) {
+            VisitorSketch sketch = visitorSketchRepository.findById(id).orElse(null);
+            try {
+                if (sketch == null) {
+                    int split = id.lastIndexOf(':');
+                    sketch = new VisitorSketch();
+                    sketch.setId(id);
+                    sketch.setVendorSlug(id.substring(0, split));
+                    sketch.setDay(LocalDate.parse(id.substring(split + 1)));
+                    sketch.setRegisters(delta.toBytes());
+                    mongoTemplate.insert(sketch);
+                } else {
+                    HyperLogLog merged = HyperLogLog.fromBytes(sketch.getRegisters());
+                    merged.merge(delta);
+                    sketch.setRegisters(merged.toBytes());
+                    visitorSketchRepository.save(sketch);
+                }
+                return;
+            } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+                log.debug("Concurrent update of visitor sketch {}, retrying", id);
+            }
+        }
+        throw new IllegalStateException("Gave up after " + MERGE_ATTEMPTS + " attempts");
+    }
+}
@@ -0,0 +1,148 @@
+package com.marketplace.service;
+
+import com.marketplace.config.MongoReadRoutingConfig;
+import com.marketplace.dto.PlatformAnalytics;
+import com.marketplace.model.PlatformDailyStats;
+import com.marketplace.model.User;
+import com.marketplace.model.Review;
+import com.marketplace.model.vendor.Vendor;
+import com.marketplace.util.HyperLogLog;
+import com.marketplace.util.PeriodParser;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Admin growth dashboard, answered from platform_daily_stats and activity_sketches. Headline totals use
+// the collection metadata counts, so no request ever scans users, vendors or reviews.
+@Service
+public class PlatformAnalyticsService {
+
+    public static final int DEFAULT_DAYS = 30;
+    private static final int DAILY_BUCKET_LIMIT = 90;
+
+    private final MongoTemplate mongoTemplate;
+    private final ActivityTracker activityTracker;
+
+    // Dashboard reads tolerate replication lag, so they are kept off the primary
+    public PlatformAnalyticsService(@Qualifier(MongoReadRoutingConfig.SECONDARY) MongoTemplate mongoTemplate,
+                                    ActivityTracker activityTracker) {
+        this.mongoTemplate = mongoTemplate;
+        this.activityTracker = activityTracker;
+    }
+
+    public PlatformAnalytics analytics(String period) {
+        int days = PeriodParser.toDays(period, DEFAULT_DAYS);
+        String unit = days > DAILY_BUCKET_LIMIT ? "week" : "day";
+        LocalDate today = LocalDate.now();
+        LocalDate start = today.minusDays(days - 1);
+
+        TreeMap<LocalDate, PlatformAnalytics.Bucket> buckets = new TreeMap<>();
+        for (LocalDate day = start; !day.isAfter(today); day = day.plusDays(1)) {
+            buckets.computeIfAbsent(bucketOf(day, unit), date -> {
+                PlatformAnalytics.Bucket b = new PlatformAnalytics.Bucket();
+                b.setDate(date);
+                return b;
+            });
+        }
+
+        PlatformAnalytics analytics = new PlatformAnalytics();
+        Map<String, Long> signupsByRole = new HashMap<>();
+        Map<String, Long> vendorsByCity = new HashMap<>();
+        Map<String, Long> vendorsByType = new HashMap<>();
+        double revenue = 0;
+        long quotes = 0;
+        long reviews = 0;
+        long ratingSum = 0;
+
+        Query range = Query.query(Criteria.where("_id").gte(start.toString()).lte(today.toString()));
+        for (PlatformDailyStats stats : mongoTemplate.find(range, PlatformDailyStats.class)) {
+            PlatformAnalytics.Bucket b = buckets.get(bucketOf(stats.getDay(), unit));
+            if (b == null) continue;
+            long customers = stats.getSignupsByRole() != null ? stats.getSignupsByRole().getOrDefault("CUSTOMER", 0L) : 0;
+            b.setCustomerSignups(b.getCustomerSignups() + customers);
+            b.setVendorSignups(b.getVendorSignups() + stats.getVendorSignups());
+            b.setQuotes(b.getQuotes() + stats.getQuotes());
+            b.setReviews(b.getReviews() + stats.getReviews());
+            b.setRatingSum(b.getRatingSum() + stats.getRatingSum());
+            b.setRevenue(b.getRevenue() + stats.getRevenue());
+
+            addAll(signupsByRole, stats.getSignupsByRole());
+            addAll(vendorsByCity, stats.getVendorsByCity());
+            addAll(vendorsByType, stats.getVendorsByType());
+            revenue += stats.getRevenue();
+            quotes += stats.getQuotes();
+            reviews += stats.getReviews();
+            ratingSum += stats.getRatingSum();
+            analytics.setNewVendors(analytics.getNewVendors() + stats.getVendorSignups());
+        }
+
+        // Distinct users can't be summed across days, so period and bucket figures are sketch unions
+        HyperLogLog periodUsers = new HyperLogLog();
+        Map<LocalDate, HyperLogLog> bucketUsers = new HashMap<>();
+        activityTracker.sketches(start, today).forEach((day, sketch) -> {
+            periodUsers.merge(sketch);
+            bucketUsers.computeIfAbsent(bucketOf(day, unit), date -> new HyperLogLog()).merge(sketch);
+        });
+        bucketUsers.forEach((date, sketch) -> {
+            PlatformAnalytics.Bucket b = buckets.get(date);
+            if (b != null) b.setActiveUsers(sketch.estimate());
+        });
+
+        long totalUsers = mongoTemplate.estimatedCount(User.class);
+        long totalVendors = mongoTemplate.estimatedCount(Vendor.class);
+        long totalReviews = mongoTemplate.estimatedCount(Review.class);
+        double averageRating = reviews > 0 ? round((double) ratingSum / reviews) : 0.0;
+
+        analytics.setPeriod(period);
+        analytics.setDays(days);
+        analytics.setBucket(unit);
+        analytics.setTotalUsers(totalUsers);
+        analytics.setTotalVendors(totalVendors);
+        analytics.setTotalReviews(totalReviews);
+        analytics.setActiveUsers(periodUsers.estimate());
+        analytics.setNewUsers(signupsByRole.values().stream().mapToLong(Long::longValue).sum() + analytics.getNewVendors());
+        analytics.setSignupsByRole(signupsByRole);
+        analytics.setVendorsByCity(vendorsByCity);
+        analytics.setVendorsByType(vendorsByType);
+        analytics.setTotals(new PlatformAnalytics.Totals(
+                totalUsers, totalVendors, round(revenue), averageRating, quotes, totalReviews));
+
+        List<PlatformAnalytics.GrowthPoint> userGrowth = new ArrayList<>();
+        List<PlatformAnalytics.ActivityPoint> platformActivity = new ArrayList<>();
+        for (PlatformAnalytics.Bucket b : buckets.values()) {
+            if (b.getReviews() > 0) {
+                b.setAverageRating(round((double) b.getRatingSum() / b.getReviews()));
+            }
+            userGrowth.add(new PlatformAnalytics.GrowthPoint(b.getDate(), b.getCustomerSignups(), b.getVendorSignups()));
+            platformActivity.add(new PlatformAnalytics.ActivityPoint(b.getDate(), b.getQuotes(), b.getReviews()));
+        }
+        analytics.setUserGrowth(userGrowth);
+        analytics.setPlatformActivity(platformActivity);
+        analytics.setSeries(new ArrayList<>(buckets.values()));
+        return analytics;
+    }
+
+    private static void addAll(Map<String, Long> into, Map<String, Long> counts) {
+        if (counts == null) return;
+        counts.forEach((key, count) -> into.merge(key, count, Long::sum));
+    }
+
+    private static LocalDate bucketOf(LocalDate day, String unit) {
+        return unit.equals("week") ? day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : day;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
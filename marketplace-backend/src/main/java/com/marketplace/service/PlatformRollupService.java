@@ -0,0 +1,306 @@
+package com.marketplace.service;
+
+import com.marketplace.model.ActivitySketch;
+import com.marketplace.model.PlatformDailyStats;
+import com.marketplace.model.RollupCheckpoint;
+import com.marketplace.repository.RollupCheckpointRepository;
+import com.marketplace.util.HyperLogLog;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Incrementally maintains platform_daily_stats (signups, vendor onboarding, quotes, reviews, revenue and
+// active users per day). Like the vendor rollup, each run recomputes the whole days touched since the
+// last watermark, so the admin dashboard never has to scan users or vendors. Days in that range the
+// aggregation no longer returns lost all their source rows and are zeroed.
+@Slf4j
+@Service
+public class PlatformRollupService {
+
+    public static final String CHECKPOINT = "platform_daily_stats";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final RollupCheckpointRepository checkpointRepository;
+    private final JobLeaseService jobLeaseService;
+    private final Duration lateArrival;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    public PlatformRollupService(MongoTemplate mongoTemplate,
+                                 RollupCheckpointRepository checkpointRepository,
+                                 JobLeaseService jobLeaseService,
+                                 @Value("${analytics.rollup.late-arrival:PT15M}") Duration lateArrival) {
+        this.mongoTemplate = mongoTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.jobLeaseService = jobLeaseService;
+        this.lateArrival = lateArrival;
+    }
+
+    // Backdated writes (seeding, imports) fall behind the watermark; recompute every day from scratch
+    public void rebuild() {
+        checkpointRepository.deleteById(CHECKPOINT);
+        rollup();
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.rollup.interval:PT10M}")
+    public synchronized void rollup() {
+        try {
+            jobLeaseService.run(CHECKPOINT, this::refresh);
+        } catch (Exception e) {
+            log.warn("Platform rollup failed, will retry from the last watermark: {}", e.getMessage());
+        }
+    }
+
+    private long refresh() {
+        Instant runStart = Instant.now();
+        Instant watermark = checkpointRepository.findById(CHECKPOINT)
+                .map(RollupCheckpoint::getWatermark)
+                .orElse(Instant.EPOCH);
+        Instant since = watermark.equals(Instant.EPOCH) ? watermark : watermark.minus(lateArrival);
+
+        long start = System.currentTimeMillis();
+        int days = rollupSignups(since)
+                + rollupVendors(since)
+                + rollupQuotes(since)
+                + rollupReviews(since)
+                + rollupRevenue(since)
+                + rollupActiveUsers(since);
+
+        RollupCheckpoint checkpoint = new RollupCheckpoint();
+        checkpoint.setName(CHECKPOINT);
+        checkpoint.setWatermark(runStart);
+        checkpoint.setUpdatedAt(Instant.now());
+        checkpointRepository.save(checkpoint);
+        log.debug("Platform rollup wrote {} day rows in {} ms", days, System.currentTimeMillis() - start);
+        return days;
+    }
+
+    private int rollupSignups(Instant since) {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("createdAt", new Document("$gte", startOfDay(since)))),
+                new Document("$group", new Document("_id", new Document("day", day("$createdAt"))
+                        .append("key", new Document("$ifNull", List.of("$role", "UNKNOWN"))))
+                        .append("count", new Document("$sum", 1))),
+                byDay(new Document("counts", new Document("$push", new Document("k", "$_id.key").append("v", "$count")))));
+        Set<String> written = write(pipeline, "users", row -> new Update().set("signupsByRole", toMap(row, "counts")));
+        zeroMissing(Criteria.where("day").gte(day(since)).and("signupsByRole").ne(new Document()), written,
+                new Update().set("signupsByRole", new Document()));
+        return written.size();
+    }
+
+    private int rollupVendors(Instant since) {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("createdAt", new Document("$gte", startOfDay(since)))),
+                new Document("$group", new Document("_id", new Document("day", day("$createdAt"))
+                        .append("city", new Document("$ifNull", List.of("$city", "Unknown")))
+                        .append("type", new Document("$ifNull", List.of("$vendorType", "Unknown"))))
+                        .append("count", new Document("$sum", 1))),
+                byDay(new Document("total", new Document("$sum", "$count"))
+                        .append("cells", new Document("$push", new Document("city", "$_id.city")
+                                .append("type", "$_id.type")
+                                .append("count", "$count")))));
+        Set<String> written = write(pipeline, "vendors", row -> {
+            Map<String, Long> byCity = new HashMap<>();
+            Map<String, Long> byType = new HashMap<>();
+            for (Document cell : row.getList("cells", Document.class)) {
+                long count = number(cell, "count");
+                byCity.merge(key(cell.get("city")), count, Long::sum);
+                byType.merge(key(cell.get("type")), count, Long::sum);
+            }
+            return new Update()
+                    .set("vendorSignups", number(row, "total"))
+                    .set("vendorsByCity", byCity)
+                    .set("vendorsByType", byType);
+        });
+        zeroMissing(Criteria.where("day").gte(day(since)).and("vendorSignups").ne(0), written, new Update()
+                .set("vendorSignups", 0)
+                .set("vendorsByCity", new Document())
+                .set("vendorsByType", new Document()));
+        return written.size();
+    }
+
+    private int rollupQuotes(Instant since) {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("createdAt", new Document("$gte", startOfDay(since)))),
+                new Document("$group", new Document("_id", day("$createdAt"))
+                        .append("quotes", new Document("$sum", 1))));
+        Set<String> written = write(pipeline, "quote_requests", row -> new Update().set("quotes", number(row, "quotes")));
+        zeroMissing(Criteria.where("day").gte(day(since)).and("quotes").ne(0), written, new Update().set("quotes", 0));
+        return written.size();
+    }
+
+    private int rollupReviews(Instant since) {
+        return rollupReviews(new Document("createdAt", new Document("$gte", startOfDay(since))),
+                Criteria.where("day").gte(day(since)));
+    }
+
+    // Days that lost reviews to moderation. Recomputed now, because a delete leaves nothing for the next
+    // run's createdAt window to find.
+    public synchronized void reviewsDeleted(Set<LocalDate> days) {
+        if (days.isEmpty()) return;
+        LocalDate first = Collections.min(days);
+        LocalDate last = Collections.max(days);
+        rollupReviews(new Document("createdAt", new Document("$gte", Date.from(first.atStartOfDay(zone).toInstant()))
+                        .append("$lt", Date.from(last.plusDays(1).atStartOfDay(zone).toInstant()))),
+                Criteria.where("day").gte(first).lte(last));
+    }
+
+    private int rollupReviews(Document match, Criteria scope) {
+        List<Document> pipeline = List.of(
+                new Document("$match", match.append("rating", new Document("$gte", 1).append("$lte", 5))),
+                new Document("$group", new Document("_id", day("$createdAt"))
+                        .append("reviews", new Document("$sum", 1))
+                        .append("ratingSum", new Document("$sum", "$rating"))));
+        Set<String> written = write(pipeline, "reviews", row -> new Update()
+                .set("reviews", number(row, "reviews"))
+                .set("ratingSum", number(row, "ratingSum")));
+        zeroMissing(scope.and("reviews").ne(0), written, new Update().set("reviews", 0).set("ratingSum", 0));
+        return written.size();
+    }
+
+    // Subscriptions carry no created timestamp; revenue is booked on the plan's start date
+    private int rollupRevenue(Instant since) {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("startDate", new Document("$gte", startOfDay(since)))),
+                new Document("$group", new Document("_id", day("$startDate"))
+                        .append("revenue", new Document("$sum", new Document("$ifNull", List.of("$price", 0))))));
+        Set<String> written = write(pipeline, "subscriptions", row -> new Update()
+                .set("revenue", ((Number) row.get("revenue")).doubleValue()));
+        zeroMissing(Criteria.where("day").gte(day(since)).and("revenue").ne(0), written, new Update().set("revenue", 0.0));
+        return written.size();
+    }
+
+    // Sketch ids are ISO dates, so "days since the watermark" is a plain _id range
+    private int rollupActiveUsers(Instant since) {
+        String fromDay = since.atZone(zone).toLocalDate().toString();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PlatformDailyStats.class);
+        int written = 0;
+        Instant now = Instant.now();
+        for (ActivitySketch sketch : mongoTemplate.find(
+                Query.query(Criteria.where("_id").gte(fromDay)), ActivitySketch.class)) {
+            bulk.upsert(
+                    Query.query(Criteria.where("_id").is(sketch.getId())),
+                    new Update()
+                            .set("activeUsers", HyperLogLog.fromBytes(sketch.getRegisters()).estimate())
+                            .set("updatedAt", now)
+                            .setOnInsert("day", sketch.getDay()));
+            written++;
+        }
+        if (written > 0) {
+            bulk.execute();
+        }
+        return written;
+    }
+
+    // Day rows in scope that the aggregation produced nothing for had all their source rows deleted
+    private void zeroMissing(Criteria scope, Set<String> written, Update zeros) {
+        Query query = Query.query(scope);
+        query.fields().include("id");
+        zeros.set("updatedAt", Instant.now());
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PlatformDailyStats.class);
+        int pending = 0;
+        try (Stream<PlatformDailyStats> rows = mongoTemplate.stream(query, PlatformDailyStats.class)) {
+            for (PlatformDailyStats row : (Iterable<PlatformDailyStats>) rows::iterator) {
+                if (written.contains(row.getId())) continue;
+                bulk.updateOne(Query.query(Criteria.where("_id").is(row.getId())), zeros);
+                if (++pending == BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PlatformDailyStats.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+    }
+
+    // Returns the ids of the day rows written
+    private Set<String> write(List<Document> pipeline, String collection, Function<Document, Update> toUpdate) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PlatformDailyStats.class);
+        int pending = 0;
+        Set<String> written = new HashSet<>();
+        Instant now = Instant.now();
+        for (Document row : mongoTemplate.getCollection(collection).aggregate(pipeline).allowDiskUse(true)) {
+            String day = row.getString("_id");
+            if (day == null) continue;
+            bulk.upsert(
+                    Query.query(Criteria.where("_id").is(day)),
+                    toUpdate.apply(row)
+                            .set("updatedAt", now)
+                            .setOnInsert("day", LocalDate.parse(day)));
+            written.add(day);
+            if (++pending == BATCH_SIZE) {
+                bulk.execute();
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PlatformDailyStats.class);
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+        return written;
+    }
+
+    // Second $group collapsing a {day, key} grouping down to one row per day
+    private static Document byDay(Document accumulators) {
+        Document group = new Document("_id", "$_id.day");
+        group.putAll(accumulators);
+        return new Document("$group", group);
+    }
+
+    private static Map<String, Long> toMap(Document row, String field) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Document entry : row.getList(field, Document.class)) {
+            counts.merge(key(entry.get("k")), number(entry, "v"), Long::sum);
+        }
+        return counts;
+    }
+
+    // Field names can't contain '.' or start with '$', and city names come from user input
+    private static String key(Object value) {
+        String key = String.valueOf(value).trim().replace('.', '_');
+        if (key.isEmpty()) return "Unknown";
+        return key.startsWith("$") ? "_" + key.substring(1) : key;
+    }
+
+    private Document day(String dateField) {
+        return new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                .append("date", dateField)
+                .append("timezone", "Z".equals(zone.getId()) ? "UTC" : zone.getId()));
+    }
+
+    private static long number(Document row, String field) {
+        return ((Number) row.get(field)).longValue();
+    }
+
+    private LocalDate day(Instant instant) {
+        return instant.atZone(zone).toLocalDate();
+    }
+
+    private Date startOfDay(Instant instant) {
+        return Date.from(instant.atZone(zone).toLocalDate().atStartOfDay(zone).toInstant());
+    }
+}
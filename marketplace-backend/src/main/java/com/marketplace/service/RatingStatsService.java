@@ -0,0 +1,177 @@
+package com.marketplace.service;
+
+import com.marketplace.model.Review;
+import com.marketplace.model.VendorRatingStats;
+import com.marketplace.model.vendor.Vendor;
+import com.marketplace.repository.VendorRatingStatsRepository;
+import com.marketplace.repository.VendorRepository;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Per-vendor star histogram, kept current with $inc on review writes. Vendors whose reviews predate
+// the histogram get it built from an aggregation the first time it is needed.
+@Service
+@RequiredArgsConstructor
+public class RatingStatsService {
+
+    private final MongoTemplate mongoTemplate;
+    private final VendorRatingStatsRepository vendorRatingStatsRepository;
+    private final VendorRepository vendorRepository;
+    private final VendorProfileCache vendorProfileCache;
+    private final VendorRankingIndex vendorRankingIndex;
+
+    // Reachable from the public review feed, so a slug without a vendor gets empty stats and no document
+    public VendorRatingStats getStats(String vendorSlug) {
+        return vendorRatingStatsRepository.findById(vendorSlug).orElseGet(() -> {
+            if (!vendorRepository.existsBySlug(vendorSlug)) {
+                VendorRatingStats empty = new VendorRatingStats();
+                empty.setVendorSlug(vendorSlug);
+                return empty;
+            }
+            return rebuild(vendorSlug);
+        });
+    }
+
+    // Call after the review has been saved; a first-time rebuild already counts it
+    public VendorRatingStats recordReview(String vendorSlug, int rating) {
+        VendorRatingStats stats = increment(vendorSlug, rating, 1);
+        if (stats == null) {
+            stats = insertBuilt(vendorSlug);
+        }
+        if (stats == null) {
+            // Another request built the histogram first, possibly before this review was saved; count it onto theirs
+            stats = increment(vendorSlug, rating, 1);
+        }
+        syncVendorRating(stats);
+        return stats;
+    }
+
+    // removed: vendor slug -> (rating -> number of reviews deleted). One bulk write corrects every
+    // affected histogram and a second one the vendors' rating/reviewCount.
+    public void removeReviews(Map<String, Map<Integer, Long>> removed) {
+        if (removed.isEmpty()) return;
+
+        BulkOperations histogramUpdates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, VendorRatingStats.class);
+        Instant now = Instant.now();
+        removed.forEach((vendorSlug, byRating) -> {
+            Update update = new Update().set("updatedAt", now);
+            long total = 0;
+            long sum = 0;
+            for (Map.Entry<Integer, Long> entry : byRating.entrySet()) {
+                update.inc("counts." + entry.getKey(), -entry.getValue());
+                total += entry.getValue();
+                sum += entry.getKey() * entry.getValue();
+            }
+            update.inc("total", -total).inc("sum", -sum);
+            histogramUpdates.updateOne(Query.query(Criteria.where("_id").is(vendorSlug)), update);
+        });
+        histogramUpdates.execute();
+
+        List<VendorRatingStats> stats = new ArrayList<>(mongoTemplate.find(
+                Query.query(Criteria.where("_id").in(removed.keySet())), VendorRatingStats.class));
+        Set<String> found = stats.stream().map(VendorRatingStats::getVendorSlug).collect(Collectors.toSet());
+        // Vendors without a histogram yet get one built from what's left
+        removed.keySet().stream()
+                .filter(slug -> !found.contains(slug))
+                .map(this::rebuild)
+                .forEach(stats::add);
+        syncVendorRatings(stats);
+    }
+
+    // Recomputes from the reviews themselves when incremental bookkeeping can't be trusted
+    public void refresh(Collection<String> vendorSlugs) {
+        if (vendorSlugs.isEmpty()) return;
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(vendorSlugs)), VendorRatingStats.class);
+        syncVendorRatings(vendorSlugs.stream().map(this::rebuild).toList());
+    }
+
+    private VendorRatingStats increment(String vendorSlug, int rating, int delta) {
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(vendorSlug)),
+                new Update()
+                        .inc("counts." + rating, delta)
+                        .inc("total", delta)
+                        .inc("sum", (long) rating * delta)
+                        .set("updatedAt", Instant.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                VendorRatingStats.class);
+    }
+
+    private VendorRatingStats rebuild(String vendorSlug) {
+        VendorRatingStats stats = insertBuilt(vendorSlug);
+        if (stats != null) {
+            return stats;
+        }
+        // Another request built it first
+        return vendorRatingStatsRepository.findById(vendorSlug).orElseGet(() -> aggregate(vendorSlug));
+    }
+
+    // Null when a histogram for the vendor already exists
+    private VendorRatingStats insertBuilt(String vendorSlug) {
+        try {
+            return mongoTemplate.insert(aggregate(vendorSlug));
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+    }
+
+    private VendorRatingStats aggregate(String vendorSlug) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("vendorSlug").is(vendorSlug).and("rating").gte(1).lte(5)),
+                Aggregation.group("rating").count().as("count"));
+
+        VendorRatingStats stats = new VendorRatingStats();
+        stats.setVendorSlug(vendorSlug);
+        for (Document bucket : mongoTemplate.aggregate(aggregation, Review.class, Document.class)) {
+            int rating = ((Number) bucket.get("_id")).intValue();
+            long count = ((Number) bucket.get("count")).longValue();
+            stats.getCounts().put(String.valueOf(rating), count);
+            stats.setTotal(stats.getTotal() + count);
+            stats.setSum(stats.getSum() + rating * count);
+        }
+        stats.setUpdatedAt(Instant.now());
+        return stats;
+    }
+
+    private void syncVendorRatings(List<VendorRatingStats> stats) {
+        if (stats.isEmpty()) return;
+        BulkOperations vendorUpdates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Vendor.class);
+        for (VendorRatingStats s : stats) {
+            vendorUpdates.updateOne(
+                    Query.query(Criteria.where("slug").is(s.getVendorSlug())),
+                    new Update().set("rating", s.average()).set("reviewCount", (int) s.getTotal()));
+        }
+        vendorUpdates.execute();
+        List<String> slugs = stats.stream().map(VendorRatingStats::getVendorSlug).toList();
+        vendorProfileCache.invalidateAll(slugs);
+        vendorRankingIndex.refresh(slugs);
+    }
+
+    private void syncVendorRating(VendorRatingStats stats) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("slug").is(stats.getVendorSlug())),
+                new Update()
+                        .set("rating", stats.average())
+                        .set("reviewCount", (int) stats.getTotal()),
+                Vendor.class);
+        vendorProfileCache.invalidate(stats.getVendorSlug());
+        vendorRankingIndex.refresh(stats.getVendorSlug());
+    }
+}
@@ -1,13 +1,22 @@
 package com.marketplace.service;
 
+import com.marketplace.dto.ReviewPage;
 import com.marketplace.model.Review;
-import com.marketplace.model.vendor.Vendor;
+import com.marketplace.model.VendorRatingStats;
 import com.marketplace.repository.ReviewRepository;
 import com.marketplace.repository.VendorRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -15,13 +24,20 @@ public class ReviewService {
     
     private final ReviewRepository reviewRepository;
     private final VendorRepository vendorRepository;
+    private final RatingStatsService ratingStatsService;
+    private final MongoTemplate mongoTemplate;
+    
+    public static final int MAX_PAGE_SIZE = 50;
     
     public Review createReview(Review review) {
+        if (review.getRating() == null || review.getRating() < 1 || review.getRating() > 5) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
         review.setCreatedAt(LocalDateTime.now());
         Review saved = reviewRepository.save(review);
         
-        // Update vendor rating
-        updateVendorRating(review.getVendorSlug());
+        // Update histogram and vendor rating
+        ratingStatsService.recordReview(saved.getVendorSlug(), saved.getRating());
         
         return saved;
     }
@@ -30,34 +46,108 @@ public class ReviewService {
         return reviewRepository.findByVendorSlug(vendorSlug);
     }
     
-    public List<Review> getVendorReviewsByEmail(String email) {
-        Vendor vendor = vendorRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Vendor not found"));
-        return reviewRepository.findByVendorSlug(vendor.getSlug());
+    public Optional<List<Review>> findVendorReviewsByEmail(String email) {
+        return vendorRepository.findByEmail(email)
+                .map(vendor -> reviewRepository.findByVendorSlug(vendor.getSlug()));
     }
     
-    public Review flagReview(String reviewId, String reason) {
-        Review review = reviewRepository.findById(reviewId)
-                .orElseThrow(() -> new RuntimeException("Review not found"));
-        review.setFlagged(true);
-        review.setFlagReason(reason);
-        return reviewRepository.save(review);
+    public Optional<Review> flagReview(String reviewId, String reason) {
+        return reviewRepository.findById(reviewId).map(review -> {
+            review.setFlagged(true);
+            review.setFlagReason(reason);
+            return reviewRepository.save(review);
+        });
     }
     
-    private void updateVendorRating(String vendorSlug) {
-        List<Review> reviews = reviewRepository.findByVendorSlug(vendorSlug);
-        if (reviews.isEmpty()) return;
+    // Keyset pagination: the cursor carries the sort key of the last review served, so deep pages cost
+    // the same index range scan as the first one. Sort is newest, highest or lowest; ties break on
+    // createdAt and then _id, both descending.
+    public ReviewPage getReviewFeed(String vendorSlug, String sort, boolean verifiedOnly, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String order = sort == null ? "newest" : sort.toLowerCase();
+        if (!order.equals("newest") && !order.equals("highest") && !order.equals("lowest")) {
+            throw new IllegalArgumentException("Unknown sort: " + sort);
+        }
         
-        double avgRating = reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
+        Criteria criteria = Criteria.where("vendorSlug").is(vendorSlug);
+        if (verifiedOnly) {
+            criteria = criteria.and("verifiedPurchase").is(true);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            criteria = new Criteria().andOperator(criteria, after(order, decodeCursor(cursor)));
+        }
+        
+        Sort byRecency = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+        Sort ordering = switch (order) {
+            case "highest" -> Sort.by(Sort.Order.desc("rating")).and(byRecency);
+            case "lowest" -> Sort.by(Sort.Order.asc("rating")).and(byRecency);
+            default -> byRecency;
+        };
+        
+        Query query = Query.query(criteria).with(ordering).limit(pageSize + 1);
+        query.fields().exclude("customerEmail", "flagReason");
+        List<Review> reviews = mongoTemplate.find(query, Review.class);
+        
+        ReviewPage page = new ReviewPage();
+        page.setHasMore(reviews.size() > pageSize);
+        if (page.isHasMore()) {
+            reviews = reviews.subList(0, pageSize);
+            page.setNextCursor(encodeCursor(reviews.get(pageSize - 1)));
+        }
+        page.setReviews(reviews);
         
-        Vendor vendor = vendorRepository.findBySlug(vendorSlug).orElse(null);
-        if (vendor != null) {
-            vendor.setRating(Math.round(avgRating * 10.0) / 10.0);
-            vendor.setReviewCount(reviews.size());
-            vendorRepository.save(vendor);
+        if (cursor == null || cursor.isBlank()) {
+            VendorRatingStats stats = ratingStatsService.getStats(vendorSlug);
+            page.setRatingCounts(stats.getCounts());
+            page.setTotalReviews(stats.getTotal());
+            page.setAverageRating(stats.average());
+        }
+        return page;
+    }
+    
+    // Legacy reviews can lack rating or createdAt. Missing values sort lowest, so they come last in a
+    // descending order and first in an ascending one, and a cursor can sit on one of them.
+    private static Criteria after(String order, String[] key) {
+        Integer rating = key[0].isEmpty() ? null : Integer.valueOf(key[0]);
+        LocalDateTime createdAt = key[1].isEmpty() ? null : LocalDateTime.parse(key[1]);
+        String id = key[2];
+        
+        Criteria olderThanCursor = createdAt == null
+                ? Criteria.where("createdAt").is(null).and("id").lt(id)
+                : new Criteria().orOperator(
+                        Criteria.where("createdAt").lt(createdAt),
+                        Criteria.where("createdAt").is(null),
+                        Criteria.where("createdAt").is(createdAt).and("id").lt(id));
+        Criteria sameRating = new Criteria().andOperator(Criteria.where("rating").is(rating), olderThanCursor);
+        return switch (order) {
+            case "highest" -> rating == null
+                    ? sameRating
+                    : new Criteria().orOperator(
+                            Criteria.where("rating").lt(rating),
+                            Criteria.where("rating").is(null),
+                            sameRating);
+            case "lowest" -> new Criteria().orOperator(
+                    rating == null ? Criteria.where("rating").ne(null) : Criteria.where("rating").gt(rating),
+                    sameRating);
+            default -> olderThanCursor;
+        };
+    }
+    
+    // Missing fields are encoded as empty segments
+    private static String encodeCursor(Review last) {
+        String key = Objects.toString(last.getRating(), "") + "|" + Objects.toString(last.getCreatedAt(), "") + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            if (key.length != 3 || key[2].isEmpty()) throw new IllegalArgumentException("Invalid cursor");
+            if (!key[0].isEmpty()) Integer.parseInt(key[0]);
+            if (!key[1].isEmpty()) LocalDateTime.parse(key[1]);
+            return key;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
         }
     }
 }
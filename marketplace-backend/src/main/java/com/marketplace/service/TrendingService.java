@@ -0,0 +1,318 @@
+package com.marketplace.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.marketplace.dto.TrendingVendor;
+import com.marketplace.model.TrendingCheckpoint;
+import com.marketplace.model.vendor.Vendor;
+import com.marketplace.repository.TrendingCheckpointRepository;
+import com.marketplace.util.CountMinSketch;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Streaming "trending vendors" ranking. Page views and quote requests are added with forward-decayed
+// weights (exp(lambda * (t - landmark))), so older activity fades with the configured half-life
+// without ever revisiting stored counts. Each partition (all, per city, per vendor type) keeps a
+// Count-Min Sketch of every vendor plus a bounded set of the heaviest candidates. Every node
+// checkpoints only what it recorded itself, under its own key; on start the checkpoints of all nodes
+// are summed cell by cell, so no node's counts are overwritten or counted twice.
+@Slf4j
+@Service
+public class TrendingService implements InvalidationHandler {
+
+    public static final String ALL = "all";
+
+    private static final double VIEW_WEIGHT = 1.0;
+    private static final double QUOTE_WEIGHT = 5.0;
+    private static final int SKETCH_WIDTH = 1024;
+    private static final int SKETCH_DEPTH = 4;
+    // Move the landmark forward before exp() gets anywhere near overflowing
+    private static final double MAX_EXPONENT = 20.0;
+
+    private final MongoTemplate mongoTemplate;
+    private final TrendingCheckpointRepository checkpointRepository;
+    private final double lambdaPerMs;
+    private final int capacity;
+    private final String node;
+    // Checkpoints not refreshed for this long belong to nodes that are gone and have decayed away
+    private final Duration retention;
+    private final LoadingCache<String, Vendor> vendors;
+
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    // Events take the read lock; moving the landmark rescales every partition under the write lock
+    private final ReadWriteLock landmarkLock = new ReentrantReadWriteLock();
+    private volatile long landmark = System.currentTimeMillis();
+
+    public TrendingService(MongoTemplate mongoTemplate,
+                           TrendingCheckpointRepository checkpointRepository,
+                           @Value("${trending.half-life:PT72H}") Duration halfLife,
+                           @Value("${trending.candidates:100}") int capacity,
+                           @Value("${trending.node-name:}") String nodeName,
+                           @Value("${trending.checkpoint-retention:P30D}") Duration retention) {
+        this.mongoTemplate = mongoTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.lambdaPerMs = Math.log(2) / halfLife.toMillis();
+        this.capacity = capacity;
+        // Stable across restarts, so a restarted node picks its own checkpoint back up
+        this.node = nodeName.isBlank() ? hostName() : nodeName;
+        this.retention = retention;
+        this.vendors = Caffeine.newBuilder()
+                .maximumSize(50_000)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .build(this::loadVendor);
+    }
+
+    public void recordView(String vendorSlug) {
+        record(vendorSlug, VIEW_WEIGHT);
+    }
+
+    public void recordQuote(String vendorSlug) {
+        record(vendorSlug, QUOTE_WEIGHT);
+    }
+
+    private void record(String vendorSlug, double weight) {
+        if (vendorSlug == null) return;
+        Vendor vendor = vendors.get(vendorSlug);
+        if (vendor == null) return;
+
+        landmarkLock.readLock().lock();
+        try {
+            double decayed = weight * Math.exp(lambdaPerMs * (System.currentTimeMillis() - landmark));
+            partition(ALL).add(vendorSlug, decayed);
+            if (vendor.getCity() != null) {
+                partition("city:" + vendor.getCity().toLowerCase()).add(vendorSlug, decayed);
+            }
+            if (vendor.getVendorType() != null) {
+                partition("type:" + vendor.getVendorType().toLowerCase()).add(vendorSlug, decayed);
+            }
+        } finally {
+            landmarkLock.readLock().unlock();
+        }
+    }
+
+    public List<TrendingVendor> trending(String city, String vendorType, int limit) {
+        String key = city != null ? "city:" + city.toLowerCase()
+                : vendorType != null ? "type:" + vendorType.toLowerCase()
+                : ALL;
+        Partition partition = partitions.get(key);
+        if (partition == null) return List.of();
+
+        double toNow = Math.exp(-lambdaPerMs * (System.currentTimeMillis() - landmark));
+        List<TrendingVendor> result = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : partition.ranked()) {
+            Vendor vendor = vendors.get(entry.getKey());
+            if (vendor == null || !"ACTIVE".equals(vendor.getStatus())) continue;
+            // Partitioned by city, so a type filter on top is applied here
+            if (city != null && vendorType != null && !vendorType.equalsIgnoreCase(vendor.getVendorType())) continue;
+
+            TrendingVendor trending = new TrendingVendor();
+            trending.setSlug(vendor.getSlug());
+            trending.setStoreName(vendor.getStoreName());
+            trending.setCity(vendor.getCity());
+            trending.setVendorType(vendor.getVendorType());
+            trending.setLogoUrl(vendor.getLogoUrl());
+            trending.setRating(vendor.getRating());
+            trending.setScore(Math.round(entry.getValue() * toNow * 100.0) / 100.0);
+            result.add(trending);
+            if (result.size() == limit) break;
+        }
+        return result;
+    }
+
+    // Vendor projections are cached for partitioning; drop them when a vendor changes on another node
+    @Override
+    public String topic() {
+        return VendorProfileCache.TOPIC;
+    }
+
+    @Override
+    public void onInvalidate(Collection<String> slugs) {
+        vendors.invalidateAll(slugs);
+    }
+
+    @Override
+    public void onFlush() {
+        vendors.invalidateAll();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        try {
+            Instant cutoff = Instant.now().minus(retention);
+            Map<String, List<String>> slugsByPartition = new HashMap<>();
+            int restored = 0;
+            landmarkLock.readLock().lock();
+            try {
+                for (TrendingCheckpoint checkpoint : checkpointRepository.findAll()) {
+                    // Checkpoints from before they were kept per node carry the partition as their id
+                    String key = checkpoint.getPartition() != null ? checkpoint.getPartition() : checkpoint.getId();
+                    if (checkpoint.getUpdatedAt() != null && checkpoint.getUpdatedAt().isBefore(cutoff)) continue;
+
+                    CountMinSketch sketch = CountMinSketch.fromBytes(checkpoint.getSketch());
+                    // Stored weights are relative to the checkpoint's landmark; re-base them onto ours
+                    sketch.scale(Math.exp(-lambdaPerMs * (landmark - checkpoint.getLandmark())));
+                    partition(key).merge(sketch, node.equals(checkpoint.getNode()));
+                    if (checkpoint.getCandidates() != null) {
+                        slugsByPartition.computeIfAbsent(key, k -> new ArrayList<>()).addAll(checkpoint.getCandidates().keySet());
+                    }
+                    restored++;
+                }
+                slugsByPartition.forEach((key, slugs) -> partitions.get(key).offerAll(slugs));
+            } finally {
+                landmarkLock.readLock().unlock();
+            }
+            log.info("Restored {} trending partitions from {} node checkpoints", partitions.size(), restored);
+        } catch (Exception e) {
+            log.warn("Could not restore trending checkpoints, starting empty: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${trending.checkpoint-interval:PT5M}",
+            initialDelayString = "${trending.checkpoint-interval:PT5M}")
+    public void checkpoint() {
+        advanceLandmark();
+        Instant now = Instant.now();
+        List<TrendingCheckpoint> checkpoints = new ArrayList<>();
+        partitions.forEach((key, partition) -> {
+            TrendingCheckpoint checkpoint = new TrendingCheckpoint();
+            checkpoint.setId(node + "|" + key);
+            checkpoint.setNode(node);
+            checkpoint.setPartition(key);
+            checkpoint.setLandmark(landmark);
+            synchronized (partition) {
+                checkpoint.setSketch(partition.own.toBytes());
+                Map<String, Double> candidates = new HashMap<>();
+                partition.candidates.keySet().forEach(slug -> candidates.put(slug, partition.own.estimate(slug)));
+                checkpoint.setCandidates(candidates);
+            }
+            checkpoint.setUpdatedAt(now);
+            checkpoints.add(checkpoint);
+        });
+        try {
+            checkpointRepository.saveAll(checkpoints);
+            mongoTemplate.remove(Query.query(Criteria.where("updatedAt").lt(now.minus(retention))), TrendingCheckpoint.class);
+        } catch (Exception e) {
+            log.warn("Failed to checkpoint trending state: {}", e.getMessage());
+        }
+    }
+
+    private void advanceLandmark() {
+        long now = System.currentTimeMillis();
+        if (lambdaPerMs * (now - landmark) < MAX_EXPONENT / 2) return;
+
+        landmarkLock.writeLock().lock();
+        try {
+            double factor = Math.exp(-lambdaPerMs * (now - landmark));
+            partitions.values().forEach(partition -> partition.scale(factor));
+            landmark = now;
+        } finally {
+            landmarkLock.writeLock().unlock();
+        }
+    }
+
+    private Partition partition(String key) {
+        return partitions.computeIfAbsent(key, k -> new Partition(SKETCH_WIDTH, SKETCH_DEPTH, capacity));
+    }
+
+    private Vendor loadVendor(String slug) {
+        Query query = Query.query(Criteria.where("slug").is(slug));
+        query.fields().include("slug", "storeName", "city", "vendorType", "status", "logoUrl", "rating");
+        return mongoTemplate.findOne(query, Vendor.class);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "local";
+        }
+    }
+
+    private static class Partition {
+        // What this node recorded itself; the only part it checkpoints
+        private final CountMinSketch own;
+        // own plus the other nodes' restored checkpoints; rankings read this one
+        private final CountMinSketch combined;
+        private final Map<String, Double> candidates = new HashMap<>();
+        private final int capacity;
+
+        Partition(int width, int depth, int capacity) {
+            this.own = new CountMinSketch(width, depth);
+            this.combined = new CountMinSketch(width, depth);
+            this.capacity = capacity;
+        }
+
+        synchronized void add(String slug, double weight) {
+            own.add(slug, weight);
+            combined.add(slug, weight);
+            offer(slug, combined.estimate(slug));
+        }
+
+        synchronized void merge(CountMinSketch sketch, boolean ours) {
+            if (ours) {
+                own.merge(sketch);
+            }
+            combined.merge(sketch);
+        }
+
+        // Re-scores the current candidates and the restored ones against the merged sketch
+        synchronized void offerAll(Collection<String> slugs) {
+            candidates.replaceAll((slug, score) -> combined.estimate(slug));
+            for (String slug : slugs) {
+                offer(slug, combined.estimate(slug));
+            }
+        }
+
+        private void offer(String slug, double estimate) {
+            if (candidates.containsKey(slug) || candidates.size() < capacity) {
+                candidates.put(slug, estimate);
+                return;
+            }
+            // Full: the newcomer replaces the lightest candidate if it now outweighs it
+            Map.Entry<String, Double> lightest = null;
+            for (Map.Entry<String, Double> entry : candidates.entrySet()) {
+                if (lightest == null || entry.getValue() < lightest.getValue()) {
+                    lightest = entry;
+                }
+            }
+            if (estimate > lightest.getValue()) {
+                candidates.remove(lightest.getKey());
+                candidates.put(slug, estimate);
+            }
+        }
+
+        synchronized List<Map.Entry<String, Double>> ranked() {
+            return candidates.entrySet().stream()
+                    .map(e -> Map.entry(e.getKey(), e.getValue()))
+                    .sorted(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()))
+                    .toList();
+        }
+
+        synchronized void scale(double factor) {
+            own.scale(factor);
+            combined.scale(factor);
+            candidates.replaceAll((slug, score) -> score * factor);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.marketplace.service;
+
+import com.marketplace.config.MongoReadRoutingConfig;
+import com.marketplace.dto.VendorAnalytics;
+import com.marketplace.model.VendorDailyStats;
+import com.marketplace.model.VisitorSketch;
+import com.marketplace.model.vendor.Vendor;
+import com.marketplace.util.HyperLogLog;
+import com.marketplace.util.PeriodParser;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Vendor dashboard charts, answered from vendor_daily_stats and visitor_sketches: a year is at most
+// 365 rollup documents plus the daily sketches, whatever the raw traffic was. Reads go to a secondary.
+@Service
+public class VendorAnalyticsService {
+
+    public static final int DEFAULT_DAYS = 30;
+    // Longer periods are bucketed by week unless the caller asks otherwise
+    private static final int DAILY_BUCKET_LIMIT = 90;
+
+    private final MongoTemplate mongoTemplate;
+
+    public VendorAnalyticsService(@Qualifier(MongoReadRoutingConfig.SECONDARY) MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public VendorAnalytics analytics(Vendor vendor, String period, String bucket) {
+        int days = PeriodParser.toDays(period, DEFAULT_DAYS);
+        String unit = bucket != null ? bucket.toLowerCase() : days > DAILY_BUCKET_LIMIT ? "week" : "day";
+        if (!unit.equals("day") && !unit.equals("week")) {
+            throw new IllegalArgumentException("Bucket must be day or week");
+        }
+
+        String slug = vendor.getSlug();
+        LocalDate today = LocalDate.now();
+        LocalDate start = today.minusDays(days - 1);
+
+        // Every bucket in the range is present, so charts show quiet days as zero
+        TreeMap<LocalDate, VendorAnalytics.Bucket> buckets = new TreeMap<>();
+        for (LocalDate day = start; !day.isAfter(today); day = day.plusDays(1)) {
+            buckets.computeIfAbsent(bucketOf(day, unit), date -> {
+                VendorAnalytics.Bucket b = new VendorAnalytics.Bucket();
+                b.setDate(date);
+                return b;
+            });
+        }
+
+        for (VendorDailyStats stats : mongoTemplate.find(dayRange(slug, start, today), VendorDailyStats.class)) {
+            VendorAnalytics.Bucket b = buckets.get(bucketOf(stats.getDay(), unit));
+            if (b == null) continue;
+            b.setViews(b.getViews() + stats.getViews());
+            b.setQuotes(b.getQuotes() + stats.getQuotes());
+            b.setRespondedQuotes(b.getRespondedQuotes() + stats.getRespondedQuotes());
+            b.setAcceptedQuotes(b.getAcceptedQuotes() + stats.getAcceptedQuotes());
+            b.setCompletedQuotes(b.getCompletedQuotes() + stats.getCompletedQuotes());
+            b.setRejectedQuotes(b.getRejectedQuotes() + stats.getRejectedQuotes());
+            b.setResponseMinutesSum(b.getResponseMinutesSum() + stats.getResponseMinutesSum());
+            b.setReviews(b.getReviews() + stats.getReviews());
+            b.setRatingSum(b.getRatingSum() + stats.getRatingSum());
+        }
+
+        HyperLogLog allVisitors = new HyperLogLog();
+        Map<LocalDate, HyperLogLog> bucketVisitors = new HashMap<>();
+        for (VisitorSketch sketch : mongoTemplate.find(dayRange(slug, start, today), VisitorSketch.class)) {
+            HyperLogLog day = HyperLogLog.fromBytes(sketch.getRegisters());
+            allVisitors.merge(day);
+            bucketVisitors.computeIfAbsent(bucketOf(sketch.getDay(), unit), date -> new HyperLogLog()).merge(day);
+        }
+
+        VendorAnalytics analytics = new VendorAnalytics();
+        analytics.setPeriod(period);
+        analytics.setDays(days);
+        analytics.setBucket(unit);
+        analytics.setUniqueVisitors(allVisitors.estimate());
+        analytics.setAverageRating(vendor.getRating() != null ? vendor.getRating() : 0.0);
+
+        List<VendorAnalytics.CountPoint> viewsTrend = new ArrayList<>();
+        List<VendorAnalytics.CountPoint> quoteTrend = new ArrayList<>();
+        List<VendorAnalytics.RatingPoint> ratingTrend = new ArrayList<>();
+        double responseMinutes = 0;
+        for (VendorAnalytics.Bucket b : buckets.values()) {
+            HyperLogLog visitors = bucketVisitors.get(b.getDate());
+            b.setUniqueVisitors(visitors != null ? visitors.estimate() : 0);
+            if (b.getRespondedQuotes() > 0) {
+                b.setAverageResponseMinutes(round(b.getResponseMinutesSum() / b.getRespondedQuotes()));
+            }
+            if (b.getReviews() > 0) {
+                b.setAverageRating(round((double) b.getRatingSum() / b.getReviews()));
+                ratingTrend.add(new VendorAnalytics.RatingPoint(b.getDate(), b.getAverageRating()));
+            }
+            viewsTrend.add(new VendorAnalytics.CountPoint(b.getDate(), b.getViews()));
+            quoteTrend.add(new VendorAnalytics.CountPoint(b.getDate(), b.getQuotes()));
+
+            analytics.setTotalViews(analytics.getTotalViews() + b.getViews());
+            analytics.setTotalQuotes(analytics.getTotalQuotes() + b.getQuotes());
+            analytics.setRespondedQuotes(analytics.getRespondedQuotes() + b.getRespondedQuotes());
+            analytics.setAcceptedQuotes(analytics.getAcceptedQuotes() + b.getAcceptedQuotes());
+            analytics.setCompletedQuotes(analytics.getCompletedQuotes() + b.getCompletedQuotes());
+            analytics.setTotalReviews(analytics.getTotalReviews() + b.getReviews());
+            responseMinutes += b.getResponseMinutesSum();
+        }
+        if (analytics.getTotalQuotes() > 0) {
+            analytics.setConversionRate(round(analytics.getAcceptedQuotes() * 100.0 / analytics.getTotalQuotes()));
+        }
+        if (analytics.getRespondedQuotes() > 0) {
+            analytics.setAverageResponseMinutes(round(responseMinutes / analytics.getRespondedQuotes()));
+        }
+        analytics.setViewsTrend(viewsTrend);
+        analytics.setQuoteTrend(quoteTrend);
+        analytics.setRatingTrend(ratingTrend);
+        analytics.setSeries(new ArrayList<>(buckets.values()));
+        return analytics;
+    }
+
+    // Both collections key documents as "<slug>:<yyyy-MM-dd>", so a date range is an _id range
+    private static Query dayRange(String slug, LocalDate from, LocalDate to) {
+        return Query.query(Criteria.where("_id")
+                .gte(VendorDailyStats.idFor(slug, from))
+                .lte(VendorDailyStats.idFor(slug, to))
+                .and("vendorSlug").is(slug));
+    }
+
+    private static LocalDate bucketOf(LocalDate day, String unit) {
+        return unit.equals("week") ? day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : day;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,154 @@
+package com.marketplace.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marketplace.model.vendor.Vendor;
+import com.marketplace.repository.VendorRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Every vendor write invalidates the cached profile here, so this is also where other nodes are told
+// that a vendor changed (topic "vendors").
+@Service
+public class VendorProfileCache implements InvalidationHandler {
+
+    public static final String TOPIC = "vendors";
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final VendorRepository vendorRepository;
+    private final VendorSlugRegistry vendorSlugRegistry;
+    private final InvalidationBus invalidationBus;
+    private final ObjectWriter profileWriter;
+    private final Cache<String, byte[]> profiles;
+    private final ConcurrentMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    // Bumped by every invalidation (per slug stripe) and flush; a load only caches its bytes if nothing
+    // was invalidated since it started reading
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong flushes = new AtomicLong();
+
+    public VendorProfileCache(VendorRepository vendorRepository,
+                              VendorSlugRegistry vendorSlugRegistry,
+                              InvalidationBus invalidationBus,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${cache.vendor-profile.max-bytes:67108864}") long maxBytes,
+                              @Value("${cache.vendor-profile.ttl:10m}") Duration ttl) {
+        this.vendorRepository = vendorRepository;
+        this.vendorSlugRegistry = vendorSlugRegistry;
+        this.invalidationBus = invalidationBus;
+        this.profileWriter = objectMapper.copy()
+                .addMixIn(Vendor.class, PublicVendorView.class)
+                .writerFor(Vendor.class);
+        this.profiles = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String slug, byte[] json) -> json.length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, profiles, "vendorProfile");
+    }
+
+    public Optional<byte[]> getProfileJson(String slug) {
+        byte[] cached = profiles.getIfPresent(slug);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (!vendorSlugRegistry.mightExist(slug)) {
+            return Optional.empty();
+        }
+
+        // Single flight: concurrent misses for the same slug wait on the first caller's load
+        CompletableFuture<byte[]> load = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(slug, load);
+        if (existing != null) {
+            return Optional.ofNullable(existing.join());
+        }
+
+        try {
+            long generation = generation(slug);
+            byte[] json = vendorRepository.findBySlug(slug).map(this::serialize).orElse(null);
+            if (json == null) {
+                vendorSlugRegistry.recordMiss(slug);
+            } else {
+                // Invalidations bump the generation before removing the entry, so checking it inside
+                // compute() means a load that raced a write is never stored
+                profiles.asMap().compute(slug, (key, current) -> generation(slug) == generation ? json : current);
+            }
+            load.complete(json);
+            return Optional.ofNullable(json);
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(slug, load);
+        }
+    }
+
+    public void invalidate(String slug) {
+        if (slug == null) return;
+        invalidateAll(List.of(slug));
+    }
+
+    public void invalidateAll(Collection<String> slugs) {
+        if (slugs.isEmpty()) return;
+        onInvalidate(slugs);
+        invalidationBus.publish(TOPIC, slugs);
+    }
+
+    @Override
+    public String topic() {
+        return TOPIC;
+    }
+
+    @Override
+    public void onInvalidate(Collection<String> slugs) {
+        slugs.forEach(slug -> generations.incrementAndGet(stripe(slug)));
+        slugs.forEach(inFlight::remove);
+        profiles.invalidateAll(slugs);
+    }
+
+    @Override
+    public void onFlush() {
+        flushes.incrementAndGet();
+        inFlight.clear();
+        profiles.invalidateAll();
+    }
+
+    // Both counters only grow, so the sum changes whenever either does
+    private long generation(String slug) {
+        return generations.get(stripe(slug)) + flushes.get();
+    }
+
+    private static int stripe(String slug) {
+        return Math.floorMod(slug.hashCode(), GENERATION_STRIPES);
+    }
+
+    private byte[] serialize(Vendor vendor) {
+        try {
+            return profileWriter.writeValueAsBytes(vendor);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize vendor profile", e);
+        }
+    }
+
+    private abstract static class PublicVendorView {
+        @JsonIgnore
+        abstract String getPasswordHash();
+    }
+}
@@ -0,0 +1,238 @@
+package com.marketplace.service;
+
+import com.marketplace.dto.RankedPage;
+import com.marketplace.dto.RankedVendor;
+import com.marketplace.model.vendor.Vendor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Explore ordering: active promotions first, then a score from rating, review count and certification.
+// Each partition (all, city, type, city+type) is a skip list ordered by rank, so a page is a seek to
+// the cursor plus a walk of the page, and a vendor change moves one entry per partition it is in.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VendorRankingIndex implements InvalidationHandler {
+
+    public static final int MAX_PAGE_SIZE = 50;
+    private static final String ALL = "all";
+    // Ratings are pulled towards PRIOR_MEAN until a vendor has a few reviews
+    private static final double PRIOR_MEAN = 3.5;
+    private static final double PRIOR_REVIEWS = 5;
+    private static final double CERTIFIED_BONUS = 0.25;
+
+    private static final Comparator<Rank> BY_RANK = Comparator
+            .comparing(Rank::promoted, Comparator.reverseOrder())
+            .thenComparing(Rank::score, Comparator.reverseOrder())
+            .thenComparing(Rank::slug);
+
+    private final MongoTemplate mongoTemplate;
+
+    private volatile Index index = new Index();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${explore.ranking.rebuild-interval:PT10M}",
+            initialDelayString = "${explore.ranking.rebuild-interval:PT10M}")
+    public void rebuild() {
+        try {
+            Index rebuilt = new Index();
+            for (Vendor vendor : mongoTemplate.find(projection(Criteria.where("status").is("ACTIVE")), Vendor.class)) {
+                rebuilt.put(vendor);
+            }
+            index = rebuilt;
+            log.debug("Ranking index holds {} vendors", rebuilt.vendors.size());
+        } catch (Exception e) {
+            log.warn("Failed to rebuild vendor ranking index: {}", e.getMessage());
+        }
+    }
+
+    public void refresh(String slug) {
+        refresh(List.of(slug));
+    }
+
+    // Re-reads the vendors and moves their entries; vendors no longer ACTIVE drop out
+    public void refresh(Collection<String> slugs) {
+        if (slugs.isEmpty()) return;
+        try {
+            Index current = index;
+            Set<String> missing = new HashSet<>(slugs);
+            for (Vendor vendor : mongoTemplate.find(projection(Criteria.where("slug").in(slugs)), Vendor.class)) {
+                missing.remove(vendor.getSlug());
+                if ("ACTIVE".equals(vendor.getStatus())) {
+                    current.put(vendor);
+                } else {
+                    current.remove(vendor.getSlug());
+                }
+            }
+            missing.forEach(current::remove);
+        } catch (Exception e) {
+            log.warn("Failed to refresh ranking for {} vendors: {}", slugs.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public String topic() {
+        return VendorProfileCache.TOPIC;
+    }
+
+    @Override
+    public void onInvalidate(Collection<String> slugs) {
+        refresh(slugs);
+    }
+
+    @Override
+    public void onFlush() {
+        rebuild();
+    }
+
+    public RankedPage ranked(String city, String vendorType, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Index current = index;
+        NavigableSet<Rank> partition = current.partitions.get(partitionKey(city, vendorType));
+
+        List<RankedVendor> vendors = new ArrayList<>();
+        boolean hasMore = false;
+        Rank last = null;
+        if (partition != null) {
+            NavigableSet<Rank> slice = cursor != null && !cursor.isBlank()
+                    ? partition.tailSet(decodeCursor(cursor), false)
+                    : partition;
+            for (Rank rank : slice) {
+                Vendor vendor = current.vendors.get(rank.slug());
+                if (vendor == null) continue;
+                if (vendors.size() == pageSize) {
+                    hasMore = true;
+                    break;
+                }
+                vendors.add(toRanked(vendor, rank));
+                last = rank;
+            }
+        }
+
+        RankedPage page = new RankedPage();
+        page.setVendors(vendors);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            page.setNextCursor(encodeCursor(last));
+        }
+        return page;
+    }
+
+    private static double score(Vendor vendor) {
+        double rating = vendor.getRating() != null ? vendor.getRating() : 0.0;
+        int reviews = vendor.getReviewCount() != null ? vendor.getReviewCount() : 0;
+        double smoothed = (PRIOR_MEAN * PRIOR_REVIEWS + rating * reviews) / (PRIOR_REVIEWS + reviews);
+        return smoothed + (vendor.isCertified() ? CERTIFIED_BONUS : 0);
+    }
+
+    private static boolean isPromoted(Vendor vendor) {
+        return vendor.isPromoted() && (vendor.getPromotedUntil() == null || vendor.getPromotedUntil().isAfter(Instant.now()));
+    }
+
+    private static Query projection(Criteria criteria) {
+        Query query = Query.query(criteria);
+        query.fields().include("slug", "storeName", "city", "vendorType", "logoUrl", "status",
+                "rating", "reviewCount", "certified", "promoted", "promotedUntil");
+        return query;
+    }
+
+    private static List<String> partitionKeys(Vendor vendor) {
+        List<String> keys = new ArrayList<>();
+        keys.add(ALL);
+        String city = vendor.getCity() != null ? vendor.getCity().trim().toLowerCase() : null;
+        String type = vendor.getVendorType() != null ? vendor.getVendorType().trim().toLowerCase() : null;
+        if (city != null) keys.add("city:" + city);
+        if (type != null) keys.add("type:" + type);
+        if (city != null && type != null) keys.add("city:" + city + "|type:" + type);
+        return keys;
+    }
+
+    private static String partitionKey(String city, String vendorType) {
+        boolean byCity = city != null && !city.isBlank();
+        boolean byType = vendorType != null && !vendorType.isBlank();
+        if (byCity && byType) return "city:" + city.trim().toLowerCase() + "|type:" + vendorType.trim().toLowerCase();
+        if (byCity) return "city:" + city.trim().toLowerCase();
+        if (byType) return "type:" + vendorType.trim().toLowerCase();
+        return ALL;
+    }
+
+    private static RankedVendor toRanked(Vendor vendor, Rank rank) {
+        RankedVendor ranked = new RankedVendor();
+        ranked.setSlug(vendor.getSlug());
+        ranked.setStoreName(vendor.getStoreName());
+        ranked.setCity(vendor.getCity());
+        ranked.setVendorType(vendor.getVendorType());
+        ranked.setLogoUrl(vendor.getLogoUrl());
+        ranked.setRating(vendor.getRating());
+        ranked.setReviewCount(vendor.getReviewCount());
+        ranked.setCertified(vendor.isCertified());
+        ranked.setPromoted(rank.promoted());
+        ranked.setScore(Math.round(rank.score() * 100.0) / 100.0);
+        return ranked;
+    }
+
+    private static String encodeCursor(Rank last) {
+        String key = last.promoted() + "|" + last.score() + "|" + last.slug();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Rank decodeCursor(String cursor) {
+        try {
+            String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 3);
+            if (key.length != 3) throw new IllegalArgumentException("Invalid cursor");
+            return new Rank(Boolean.parseBoolean(key[0]), Double.parseDouble(key[1]), key[2]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private record Rank(boolean promoted, double score, String slug) {}
+
+    private static class Index {
+        private final Map<String, Vendor> vendors = new ConcurrentHashMap<>();
+        private final Map<String, Rank> ranks = new ConcurrentHashMap<>();
+        private final Map<String, NavigableSet<Rank>> partitions = new ConcurrentHashMap<>();
+
+        // Writers are serialized; readers walk the skip lists without locking
+        synchronized void put(Vendor vendor) {
+            remove(vendor.getSlug());
+            Rank rank = new Rank(isPromoted(vendor), score(vendor), vendor.getSlug());
+            vendors.put(vendor.getSlug(), vendor);
+            ranks.put(vendor.getSlug(), rank);
+            for (String key : partitionKeys(vendor)) {
+                partitions.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>(BY_RANK)).add(rank);
+            }
+        }
+
+        synchronized void remove(String slug) {
+            Vendor vendor = vendors.remove(slug);
+            Rank rank = ranks.remove(slug);
+            if (vendor == null || rank == null) return;
+            for (String key : partitionKeys(vendor)) {
+                NavigableSet<Rank> partition = partitions.get(key);
+                if (partition != null) partition.remove(rank);
+            }
+        }
+    }
+}
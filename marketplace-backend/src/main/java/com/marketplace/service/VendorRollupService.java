@@ -0,0 +1,270 @@
+package com.marketplace.service;
+
+import com.marketplace.model.RollupCheckpoint;
+import com.marketplace.model.VendorDailyStats;
+import com.marketplace.repository.RollupCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Incrementally maintains vendor_daily_stats from page_views, quote_requests and reviews. Each run only
+// looks at source documents changed since the last watermark and recomputes the whole days they fall
+// in, so a rerun over the same window is harmless. A recomputed day with no source rows left is zeroed,
+// and days that lose reviews to moderation are recomputed right away since deletes leave no timestamp.
+@Slf4j
+@Service
+public class VendorRollupService {
+
+    public static final String CHECKPOINT = "vendor_daily_stats";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final RollupCheckpointRepository checkpointRepository;
+    private final JobLeaseService jobLeaseService;
+    // Page views are written from an in-memory buffer, so their viewedAt can trail the write slightly
+    private final Duration lateArrival;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    public VendorRollupService(MongoTemplate mongoTemplate,
+                               RollupCheckpointRepository checkpointRepository,
+                               JobLeaseService jobLeaseService,
+                               @Value("${analytics.rollup.late-arrival:PT15M}") Duration lateArrival) {
+        this.mongoTemplate = mongoTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.jobLeaseService = jobLeaseService;
+        this.lateArrival = lateArrival;
+    }
+
+    // Backdated writes (seeding, imports) fall behind the watermark; recompute every day from scratch
+    public void rebuild() {
+        checkpointRepository.deleteById(CHECKPOINT);
+        rollup();
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.rollup.interval:PT10M}")
+    public synchronized void rollup() {
+        try {
+            jobLeaseService.run(CHECKPOINT, this::refresh);
+        } catch (Exception e) {
+            log.warn("Vendor rollup failed, will retry from the last watermark: {}", e.getMessage());
+        }
+    }
+
+    private long refresh() {
+        Instant runStart = Instant.now();
+        Instant watermark = checkpointRepository.findById(CHECKPOINT)
+                .map(RollupCheckpoint::getWatermark)
+                .orElse(Instant.EPOCH);
+        Instant since = watermark.equals(Instant.EPOCH) ? watermark : watermark.minus(lateArrival);
+
+        long start = System.currentTimeMillis();
+        int views = rollupViews(since);
+        int quotes = rollupQuotes(since);
+        int reviews = rollupReviews(since);
+
+        RollupCheckpoint checkpoint = new RollupCheckpoint();
+        checkpoint.setName(CHECKPOINT);
+        checkpoint.setWatermark(runStart);
+        checkpoint.setUpdatedAt(Instant.now());
+        checkpointRepository.save(checkpoint);
+        log.debug("Vendor rollup refreshed {} view, {} quote and {} review days in {} ms",
+                views, quotes, reviews, System.currentTimeMillis() - start);
+        return views + quotes + reviews;
+    }
+
+    private int rollupViews(Instant since) {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("viewedAt", new Document("$gte", startOfDay(since)))),
+                new Document("$group", new Document("_id", slugAndDay("$viewedAt"))
+                        .append("views", new Document("$sum", 1))));
+        Set<String> written = write(pipeline, "page_views", row -> new Update().set("views", number(row, "views")));
+        zeroMissing(Criteria.where("day").gte(day(since)).and("views").ne(0), written, new Update().set("views", 0));
+        return written.size();
+    }
+
+    // Quote outcomes are attributed to the day the quote arrived, so a status change rewrites that
+    // older day; only days holding a recently changed quote are recomputed.
+    private int rollupQuotes(Instant since) {
+        Map<String, LocalDate[]> dirty = new HashMap<>();
+        for (Document quote : mongoTemplate.getCollection("quote_requests")
+                .find(new Document("updatedAt", new Document("$gte", Date.from(since))))
+                .projection(new Document("vendorSlug", 1).append("createdAt", 1))
+                .batchSize(BATCH_SIZE)) {
+            String slug = quote.getString("vendorSlug");
+            Date createdAt = quote.getDate("createdAt");
+            if (slug == null || createdAt == null) continue;
+            LocalDate day = createdAt.toInstant().atZone(zone).toLocalDate();
+            dirty.merge(slug, new LocalDate[]{day, day}, (range, d) -> new LocalDate[]{
+                    range[0].isBefore(d[0]) ? range[0] : d[0],
+                    range[1].isAfter(d[1]) ? range[1] : d[1]});
+        }
+
+        int days = 0;
+        for (Map.Entry<String, LocalDate[]> entry : dirty.entrySet()) {
+            Document created = new Document("$gte", Date.from(entry.getValue()[0].atStartOfDay(zone).toInstant()))
+                    .append("$lt", Date.from(entry.getValue()[1].plusDays(1).atStartOfDay(zone).toInstant()));
+            Document responded = new Document("$ifNull", List.of("$respondedAt", false));
+            List<Document> pipeline = List.of(
+                    new Document("$match", new Document("vendorSlug", entry.getKey()).append("createdAt", created)),
+                    new Document("$group", new Document("_id", slugAndDay("$createdAt"))
+                            .append("quotes", new Document("$sum", 1))
+                            .append("responded", sumIf(responded))
+                            .append("responseMinutes", new Document("$sum", new Document("$cond", List.of(responded,
+                                    new Document("$divide", List.of(
+                                            new Document("$subtract", List.of("$respondedAt", "$createdAt")), 60_000)),
+                                    0))))
+                            .append("accepted", sumIf(new Document("$in", List.of("$status", List.of("ACCEPTED", "COMPLETED")))))
+                            .append("completed", sumIf(new Document("$eq", List.of("$status", "COMPLETED"))))
+                            .append("rejected", sumIf(new Document("$eq", List.of("$status", "REJECTED"))))));
+            Set<String> written = write(pipeline, "quote_requests", row -> new Update()
+                    .set("quotes", number(row, "quotes"))
+                    .set("respondedQuotes", number(row, "responded"))
+                    .set("responseMinutesSum", ((Number) row.get("responseMinutes")).doubleValue())
+                    .set("acceptedQuotes", number(row, "accepted"))
+                    .set("completedQuotes", number(row, "completed"))
+                    .set("rejectedQuotes", number(row, "rejected")));
+            zeroMissing(Criteria.where("vendorSlug").is(entry.getKey())
+                            .and("day").gte(entry.getValue()[0]).lte(entry.getValue()[1])
+                            .and("quotes").ne(0),
+                    written,
+                    new Update()
+                            .set("quotes", 0)
+                            .set("respondedQuotes", 0)
+                            .set("responseMinutesSum", 0.0)
+                            .set("acceptedQuotes", 0)
+                            .set("completedQuotes", 0)
+                            .set("rejectedQuotes", 0));
+            days += written.size();
+        }
+        return days;
+    }
+
+    private int rollupReviews(Instant since) {
+        return rollupReviews(new Document("createdAt", new Document("$gte", startOfDay(since))),
+                Criteria.where("day").gte(day(since)));
+    }
+
+    // days: vendor slug -> days that lost reviews. Recomputed now, because a delete leaves nothing for
+    // the next run's createdAt window to find.
+    public synchronized void reviewsDeleted(Map<String, Set<LocalDate>> days) {
+        days.forEach((slug, touched) -> {
+            LocalDate first = Collections.min(touched);
+            LocalDate last = Collections.max(touched);
+            rollupReviews(new Document("vendorSlug", slug).append("createdAt", new Document("$gte", Date.from(first.atStartOfDay(zone).toInstant()))
+                            .append("$lt", Date.from(last.plusDays(1).atStartOfDay(zone).toInstant()))),
+                    Criteria.where("vendorSlug").is(slug).and("day").gte(first).lte(last));
+        });
+    }
+
+    private int rollupReviews(Document match, Criteria scope) {
+        List<Document> pipeline = List.of(
+                new Document("$match", match.append("rating", new Document("$gte", 1).append("$lte", 5))),
+                new Document("$group", new Document("_id", slugAndDay("$createdAt"))
+                        .append("reviews", new Document("$sum", 1))
+                        .append("ratingSum", new Document("$sum", "$rating"))));
+        Set<String> written = write(pipeline, "reviews", row -> new Update()
+                .set("reviews", number(row, "reviews"))
+                .set("ratingSum", number(row, "ratingSum")));
+        zeroMissing(scope.and("reviews").ne(0), written, new Update().set("reviews", 0).set("ratingSum", 0));
+        return written.size();
+    }
+
+    // Rollup rows in scope that the aggregation produced nothing for had all their source rows deleted
+    private void zeroMissing(Criteria scope, Set<String> written, Update zeros) {
+        Query query = Query.query(scope);
+        query.fields().include("id");
+        zeros.set("updatedAt", Instant.now());
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, VendorDailyStats.class);
+        int pending = 0;
+        try (Stream<VendorDailyStats> rows = mongoTemplate.stream(query, VendorDailyStats.class)) {
+            for (VendorDailyStats row : (Iterable<VendorDailyStats>) rows::iterator) {
+                if (written.contains(row.getId())) continue;
+                bulk.updateOne(Query.query(Criteria.where("_id").is(row.getId())), zeros);
+                if (++pending == BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, VendorDailyStats.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+    }
+
+    // Returns the ids of the rollup rows written
+    private Set<String> write(List<Document> pipeline, String collection, Function<Document, Update> toUpdate) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, VendorDailyStats.class);
+        int pending = 0;
+        Set<String> written = new HashSet<>();
+        Instant now = Instant.now();
+        for (Document row : mongoTemplate.getCollection(collection).aggregate(pipeline).allowDiskUse(true)) {
+            Document key = row.get("_id", Document.class);
+            String slug = key.getString("slug");
+            if (slug == null) continue;
+            LocalDate day = LocalDate.parse(key.getString("day"));
+            String id = VendorDailyStats.idFor(slug, day);
+            bulk.upsert(
+                    Query.query(Criteria.where("_id").is(id)),
+                    toUpdate.apply(row)
+                            .set("updatedAt", now)
+                            .setOnInsert("vendorSlug", slug)
+                            .setOnInsert("day", day));
+            written.add(id);
+            if (++pending == BATCH_SIZE) {
+                bulk.execute();
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, VendorDailyStats.class);
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+        return written;
+    }
+
+    private Document slugAndDay(String dateField) {
+        return new Document("slug", "$vendorSlug")
+                .append("day", new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                        .append("date", dateField)
+                        .append("timezone", "Z".equals(zone.getId()) ? "UTC" : zone.getId())));
+    }
+
+    private static Document sumIf(Document condition) {
+        return new Document("$sum", new Document("$cond", List.of(condition, 1, 0)));
+    }
+
+    private static long number(Document row, String field) {
+        return ((Number) row.get(field)).longValue();
+    }
+
+    private LocalDate day(Instant instant) {
+        return instant.atZone(zone).toLocalDate();
+    }
+
+    private Date startOfDay(Instant instant) {
+        return Date.from(instant.atZone(zone).toLocalDate().atStartOfDay(zone).toInstant());
+    }
+}
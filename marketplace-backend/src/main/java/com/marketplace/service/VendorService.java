@@ -1,47 +1,65 @@
 package com.marketplace.service;
 
 import com.marketplace.model.vendor.Vendor;
+import com.marketplace.repository.VendorBrowseRepository;
 import com.marketplace.repository.VendorRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class VendorService {
     
     private final VendorRepository vendorRepository;
+    private final VendorBrowseRepository vendorBrowseRepository;
+    private final VendorProfileCache vendorProfileCache;
+    private final VendorSlugRegistry vendorSlugRegistry;
+    private final AvailabilityService availabilityService;
+    private final VendorRankingIndex vendorRankingIndex;
     
     public List<Vendor> getAllActiveVendors() {
-        return vendorRepository.findByStatus("ACTIVE");
+        return vendorBrowseRepository.findByStatus("ACTIVE");
     }
     
-    public Vendor getVendorBySlug(String slug) {
-        return vendorRepository.findBySlug(slug)
-                .orElseThrow(() -> new RuntimeException("Vendor not found"));
+    public Optional<Vendor> findVendorBySlug(String slug) {
+        if (!vendorSlugRegistry.mightExist(slug)) {
+            return Optional.empty();
+        }
+        Optional<Vendor> vendor = vendorRepository.findBySlug(slug);
+        if (vendor.isEmpty()) {
+            vendorSlugRegistry.recordMiss(slug);
+        }
+        return vendor;
     }
     
-    public Vendor getVendorByEmail(String email) {
-        return vendorRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Vendor not found"));
+    public Optional<Vendor> findVendorById(String id) {
+        return vendorRepository.findById(id);
+    }
+    
+    public Optional<Vendor> findVendorByEmail(String email) {
+        return vendorRepository.findByEmail(email);
     }
     
     public List<Vendor> getVendorsByCity(String city) {
-        return vendorRepository.findByCity(city);
+        return vendorBrowseRepository.findByCity(city);
     }
     
     public List<Vendor> getVendorsByType(String vendorType) {
-        return vendorRepository.findByVendorType(vendorType);
+        return vendorBrowseRepository.findByVendorType(vendorType);
     }
     
     public boolean checkSlugAvailability(String storeName) {
         String slug = com.marketplace.util.SlugGenerator.generateSlug(storeName);
-        return !vendorRepository.existsBySlug(slug);
+        return availabilityService.isSlugAvailable(slug);
     }
     
-    public Vendor updateVendor(String slug, Vendor updates) {
-        Vendor vendor = getVendorBySlug(slug);
-        
+    public Optional<Vendor> updateVendor(String slug, Vendor updates) {
+        return findVendorBySlug(slug).map(vendor -> applyUpdates(vendor, updates));
+    }
+    
+    private Vendor applyUpdates(Vendor vendor, Vendor updates) {
         if (updates.getBusinessName() != null) vendor.setBusinessName(updates.getBusinessName());
         if (updates.getOwnerName() != null) vendor.setOwnerName(updates.getOwnerName());
         if (updates.getMobile() != null) vendor.setMobile(updates.getMobile());
@@ -52,12 +70,17 @@ public class VendorService {
         if (updates.getThemeColor() != null) vendor.setThemeColor(updates.getThemeColor());
         
         vendor.setUpdatedAt(java.time.Instant.now());
-        return vendorRepository.save(vendor);
+        Vendor saved = vendorRepository.save(vendor);
+        vendorProfileCache.invalidate(saved.getSlug());
+        vendorRankingIndex.refresh(saved.getSlug());
+        return saved;
     }
     
-    public Vendor updateVendorByEmail(String email, Vendor updates) {
-        Vendor vendor = getVendorByEmail(email);
-        
+    public Optional<Vendor> updateVendorByEmail(String email, Vendor updates) {
+        return findVendorByEmail(email).map(vendor -> applyProfileUpdates(vendor, updates));
+    }
+    
+    private Vendor applyProfileUpdates(Vendor vendor, Vendor updates) {
         if (updates.getBusinessName() != null) vendor.setBusinessName(updates.getBusinessName());
         if (updates.getOwnerName() != null) vendor.setOwnerName(updates.getOwnerName());
         if (updates.getMobile() != null) vendor.setMobile(updates.getMobile());
@@ -78,6 +101,9 @@ public class VendorService {
         if (updates.getVendorType() != null) vendor.setVendorType(updates.getVendorType());
         
         vendor.setUpdatedAt(java.time.Instant.now());
-        return vendorRepository.save(vendor);
+        Vendor saved = vendorRepository.save(vendor);
+        vendorProfileCache.invalidate(saved.getSlug());
+        vendorRankingIndex.refresh(saved.getSlug());
+        return saved;
     }
 }
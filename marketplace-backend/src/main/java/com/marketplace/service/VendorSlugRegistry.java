@@ -0,0 +1,146 @@
+package com.marketplace.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marketplace.util.BloomFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Answers "can this slug possibly exist?" without Mongo. A Bloom filter over all vendor slugs rejects
+// unknown slugs outright; misses that get past it are remembered in a short-TTL negative cache.
+@Slf4j
+@Service
+public class VendorSlugRegistry implements InvalidationHandler {
+
+    public static final String TOPIC = "vendor-slugs";
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final MongoTemplate mongoTemplate;
+    private final InvalidationBus invalidationBus;
+    private final Cache<String, Boolean> negativeCache;
+    // Guards the filter swap: a slug registered while the cursor runs is replayed into the new filter
+    private final Object registrationLock = new Object();
+    private final Set<String> registeredDuringRebuild = new HashSet<>();
+    private volatile BloomFilter slugs;
+    private boolean rebuilding;
+
+    public VendorSlugRegistry(MongoTemplate mongoTemplate,
+                              InvalidationBus invalidationBus,
+                              MeterRegistry meterRegistry,
+                              @Value("${cache.vendor-miss.ttl:30s}") Duration missTtl,
+                              @Value("${cache.vendor-miss.max-entries:100000}") long maxEntries) {
+        this.mongoTemplate = mongoTemplate;
+        this.invalidationBus = invalidationBus;
+        this.negativeCache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(missTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, negativeCache, "vendorMiss");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    // Signups on other instances arrive through the invalidation bus; the rebuild is the backstop.
+    // The scheduler, a bus flush and the admin seed can all trigger one, so rebuilds run one at a time.
+    @Scheduled(fixedDelayString = "${cache.vendor-slugs.rebuild-interval:PT10M}",
+            initialDelayString = "${cache.vendor-slugs.rebuild-interval:PT10M}")
+    public synchronized void rebuild() {
+        synchronized (registrationLock) {
+            rebuilding = true;
+            registeredDuringRebuild.clear();
+        }
+        try {
+            long start = System.currentTimeMillis();
+            long expected = mongoTemplate.getCollection("vendors").estimatedDocumentCount();
+            BloomFilter filter = BloomFilter.create(expected * 2 + 10_000, FALSE_POSITIVE_RATE);
+
+            long loaded = 0;
+            for (Document vendor : mongoTemplate.getCollection("vendors")
+                    .find()
+                    .projection(new Document("slug", 1).append("_id", 0))
+                    .batchSize(5000)) {
+                String slug = vendor.getString("slug");
+                if (slug != null) {
+                    filter.put(slug);
+                    loaded++;
+                }
+            }
+            synchronized (registrationLock) {
+                // Signups that raced the cursor may have gone into the old filter only
+                registeredDuringRebuild.forEach(filter::put);
+                slugs = filter;
+            }
+            log.info("Loaded {} vendor slugs into Bloom filter in {} ms", loaded, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("Vendor slug filter rebuild failed, lookups fall through to Mongo: {}", e.getMessage());
+        } finally {
+            synchronized (registrationLock) {
+                rebuilding = false;
+                registeredDuringRebuild.clear();
+            }
+        }
+    }
+
+    public boolean mightExist(String slug) {
+        if (slug == null || slug.isBlank()) return false;
+        BloomFilter filter = slugs;
+        if (filter != null && !filter.mightContain(slug)) return false;
+        return negativeCache.getIfPresent(slug) == null;
+    }
+
+    public void recordMiss(String slug) {
+        negativeCache.put(slug, Boolean.TRUE);
+    }
+
+    public void register(String slug) {
+        registerLocally(slug);
+        invalidationBus.publish(TOPIC, List.of(slug));
+    }
+
+    @Override
+    public String topic() {
+        return TOPIC;
+    }
+
+    @Override
+    public void onInvalidate(Collection<String> slugs) {
+        slugs.forEach(this::registerLocally);
+    }
+
+    @Override
+    public void onFlush() {
+        rebuild();
+    }
+
+    private void registerLocally(String slug) {
+        synchronized (registrationLock) {
+            if (rebuilding) {
+                registeredDuringRebuild.add(slug);
+            }
+            BloomFilter filter = slugs;
+            if (filter != null) {
+                filter.put(slug);
+            }
+        }
+        negativeCache.invalidate(slug);
+    }
+}
@@ -0,0 +1,113 @@
+package com.marketplace.service;
+
+import com.marketplace.dto.BulkVendorStatusRequest;
+import com.marketplace.model.vendor.Vendor;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+// Admin status changes as batched updateMany calls, whether for one vendor or a whole sweep
+@Service
+@RequiredArgsConstructor
+public class VendorStatusService {
+
+    public static final Set<String> STATUSES = Set.of("ACTIVE", "REJECTED", "SUSPENDED", "PENDING");
+    public static final int MAX_IDS = 10_000;
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final VendorProfileCache vendorProfileCache;
+    private final VendorRankingIndex vendorRankingIndex;
+
+    public UpdateResult updateStatus(Collection<String> vendorIds, String status) {
+        if (vendorIds.size() > MAX_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_IDS + " vendors per request");
+        }
+        return apply(Criteria.where("id").in(vendorIds), status);
+    }
+
+    public UpdateResult updateStatus(BulkVendorStatusRequest request) {
+        boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (hasIds == (request.getFilter() != null)) {
+            throw new IllegalArgumentException("Provide either ids or filter");
+        }
+        return hasIds
+                ? updateStatus(request.getIds(), request.getStatus())
+                : apply(toCriteria(request.getFilter()), request.getStatus());
+    }
+
+    private UpdateResult apply(Criteria criteria, String status) {
+        if (status == null || !STATUSES.contains(status)) {
+            throw new IllegalArgumentException("Status must be one of " + STATUSES);
+        }
+
+        // Walked in _id batches so a broad filter never holds every slug in memory or touches every
+        // vendor in one write; each batch's profiles are dropped from the cache before the next one
+        long matched = 0;
+        long modified = 0;
+        String lastId = null;
+        while (true) {
+            Query page = Query.query(lastId == null
+                            ? criteria
+                            : new Criteria().andOperator(criteria, Criteria.where("id").gt(lastId)))
+                    .with(Sort.by("id"))
+                    .limit(BATCH_SIZE);
+            page.fields().include("slug");
+            List<Vendor> batch = mongoTemplate.find(page, Vendor.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            List<String> ids = batch.stream().map(Vendor::getId).toList();
+            List<String> slugs = batch.stream().map(Vendor::getSlug).toList();
+            UpdateResult result = mongoTemplate.updateMulti(
+                    Query.query(new Criteria().andOperator(criteria, Criteria.where("id").in(ids))),
+                    new Update().set("status", status).set("updatedAt", Instant.now()),
+                    Vendor.class);
+            matched += result.getMatchedCount();
+            modified += result.getModifiedCount();
+            vendorProfileCache.invalidateAll(slugs);
+            vendorRankingIndex.refresh(slugs);
+
+            if (batch.size() < BATCH_SIZE) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+        }
+        return UpdateResult.acknowledged(matched, modified, null);
+    }
+
+    private static Criteria toCriteria(BulkVendorStatusRequest.Filter filter) {
+        Criteria criteria = new Criteria();
+        boolean constrained = false;
+        if (filter.getStatus() != null) {
+            criteria.and("status").is(filter.getStatus());
+            constrained = true;
+        }
+        if (filter.getCity() != null) {
+            criteria.and("city").is(filter.getCity());
+            constrained = true;
+        }
+        if (filter.getCreatedFrom() != null || filter.getCreatedTo() != null) {
+            Criteria createdAt = criteria.and("createdAt");
+            if (filter.getCreatedFrom() != null) createdAt.gte(filter.getCreatedFrom());
+            if (filter.getCreatedTo() != null) createdAt.lt(filter.getCreatedTo());
+            constrained = true;
+        }
+        // An empty filter would rewrite every vendor
+        if (!constrained) {
+            throw new IllegalArgumentException("Filter needs at least one of status, city, createdFrom, createdTo");
+        }
+        return criteria;
+    }
+}
@@ -0,0 +1,125 @@
+package com.marketplace.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Concurrency limit that finds its own value from latency, after the gradient approach: a long-term
+// average RTT is compared with the RTT of the latest sample window, and while recent requests are no
+// slower the limit grows by about sqrt(limit); once they queue up (gradient < 1) it shrinks in
+// proportion. A window with failed or timed-out requests cuts the limit multiplicatively, AIMD style.
+// Acquiring is a CAS on the in-flight count; the limit is only recomputed once per window.
+public class AdaptiveLimiter {
+    private static final long WINDOW_NANOS = 100_000_000L;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    // Long-term RTT averages ~600 windows, about a minute under steady traffic
+    private static final double LONG_SMOOTHING = 2.0 / 601;
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+    // Tolerate recent requests being a little slower than the baseline before backing off
+    private static final double TOLERANCE = 1.5;
+    // A window that cuts the limit by less than 1% is no longer shedding anything
+    private static final double BOTTOMED_OUT = 0.99;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int minLimit;
+    private final int maxLimit;
+
+    private volatile double limit;
+    private double longRtt;
+    private double shortRtt;
+
+    private long windowStart = System.nanoTime();
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Called once for every successful tryAcquire()
+    public void release(long rttNanos, boolean dropped) {
+        release(System.nanoTime(), rttNanos, dropped);
+    }
+
+    // Called instead of release() for requests whose latency says nothing about the backend
+    public void ignore() {
+        inFlight.decrementAndGet();
+    }
+
+    synchronized void release(long nowNanos, long rttNanos, boolean dropped) {
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight.getAndDecrement());
+        windowDropped |= dropped;
+        if (!dropped) {
+            windowRttSum += rttNanos;
+            windowSamples++;
+        }
+        if (nowNanos - windowStart < WINDOW_NANOS || (windowSamples < MIN_WINDOW_SAMPLES && !windowDropped)) {
+            return;
+        }
+
+        double current = limit;
+        if (windowDropped) {
+            limit = Math.max(minLimit, current * BACKOFF);
+        } else {
+            shortRtt = (double) windowRttSum / windowSamples;
+            if (longRtt == 0) {
+                longRtt = shortRtt;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+            double target = current * gradient + Math.sqrt(current);
+            double next = current * (1 - LIMIT_SMOOTHING) + target * LIMIT_SMOOTHING;
+            // The baseline only follows latency down. Following it up would let it drift to the queued
+            // latency and take the limit with it, unless the limit has bottomed out: then shedding no
+            // longer helps, the backend itself got slower, and that latency is the new baseline.
+            boolean bottomedOut = gradient < 1.0 && next > current * BOTTOMED_OUT;
+            if (shortRtt < longRtt || bottomedOut) {
+                longRtt += (shortRtt - longRtt) * LONG_SMOOTHING;
+            }
+            // After latency recovers the old, slower baseline would let the limit overshoot; decay it
+            if (longRtt / shortRtt > 2) {
+                longRtt *= 0.95;
+            }
+            // A limit that isn't being used says nothing about whether it could be higher
+            if (windowMaxInFlight >= current / 2) {
+                limit = Math.min(maxLimit, Math.max(minLimit, next));
+            }
+        }
+
+        windowStart = nowNanos;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public synchronized double getLongRttMillis() {
+        return longRtt / 1_000_000.0;
+    }
+
+    public synchronized double getShortRttMillis() {
+        return shortRtt / 1_000_000.0;
+    }
+}
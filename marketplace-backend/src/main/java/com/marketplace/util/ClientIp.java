@@ -0,0 +1,27 @@
+package com.marketplace.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// The caller's address as seen by this app. X-Forwarded-For is only believed when we are known to sit
+// behind a proxy that sets it; otherwise any client could pick its own address. Even then only the
+// entries our own proxies appended are believed: each proxy adds the address it saw on the right, so
+// with N trusted proxies the client is the Nth entry from the right, and anything further left was
+// written by the client itself.
+public class ClientIp {
+
+    public static String of(HttpServletRequest request, boolean trustForwardedFor, int trustedProxies) {
+        if (trustForwardedFor && trustedProxies > 0) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                String[] hops = forwardedFor.split(",");
+                // Fewer hops than proxies means the request skipped an outer one; the leftmost entry
+                // was then still written by a proxy of ours
+                String hop = hops[Math.max(0, hops.length - trustedProxies)].trim();
+                if (!hop.isEmpty()) {
+                    return hop;
+                }
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
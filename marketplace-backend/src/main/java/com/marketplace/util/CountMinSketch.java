@@ -0,0 +1,83 @@
+package com.marketplace.util;
+
+import java.nio.ByteBuffer;
+
+// Count-Min Sketch with real-valued counters, so it can hold time-decayed weights. Estimates never
+// undercount; overcounting is bounded by the sketch width. Not thread-safe.
+public class CountMinSketch {
+    private final int width;
+    private final int depth;
+    private final double[] counters;
+
+    public CountMinSketch(int width, int depth) {
+        this.width = width;
+        this.depth = depth;
+        this.counters = new double[width * depth];
+    }
+
+    public void add(String key, double weight) {
+        long hash = BloomFilter.hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + index(h1 + row * h2)] += weight;
+        }
+    }
+
+    public double estimate(String key) {
+        long hash = BloomFilter.hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[row * width + index(h1 + row * h2)]);
+        }
+        return min;
+    }
+
+    public void scale(double factor) {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] *= factor;
+        }
+    }
+
+    // Cell-wise sum; the result estimates the combined stream of both sketches
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Sketch dimensions differ");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(8 + counters.length * 8);
+        buffer.putInt(width).putInt(depth);
+        for (double counter : counters) {
+            buffer.putDouble(counter);
+        }
+        return buffer.array();
+    }
+
+    public static CountMinSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CountMinSketch sketch = new CountMinSketch(buffer.getInt(), buffer.getInt());
+        for (int i = 0; i < sketch.counters.length; i++) {
+            sketch.counters[i] = buffer.getDouble();
+        }
+        return sketch;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    private int index(int combined) {
+        return (combined & Integer.MAX_VALUE) % width;
+    }
+}
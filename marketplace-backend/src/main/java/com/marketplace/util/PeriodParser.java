@@ -0,0 +1,28 @@
+package com.marketplace.util;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Analytics periods arrive as "30" from the dashboard and "30d" from older clients; w, m and y
+// units are accepted too. Results are clamped to two years.
+public class PeriodParser {
+    private static final Pattern PERIOD = Pattern.compile("(\\d{1,4})\\s*([dwmy]?)");
+    private static final int MAX_DAYS = 730;
+    
+    public static int toDays(String period, int defaultDays) {
+        if (period == null || period.isBlank()) return defaultDays;
+        Matcher matcher = PERIOD.matcher(period.trim().toLowerCase(Locale.ENGLISH));
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid period: " + period);
+        }
+        int amount = Integer.parseInt(matcher.group(1));
+        int days = switch (matcher.group(2)) {
+            case "w" -> amount * 7;
+            case "m" -> amount * 30;
+            case "y" -> amount * 365;
+            default -> amount;
+        };
+        return Math.max(1, Math.min(days, MAX_DAYS));
+    }
+}
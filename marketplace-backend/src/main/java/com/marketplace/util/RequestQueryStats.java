@@ -0,0 +1,73 @@
+package com.marketplace.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+public class RequestQueryStats {
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private final int maxStatements;
+    private final List<Statement> slowest = new ArrayList<>();
+    private int calls;
+    private long totalNanos;
+
+    private RequestQueryStats(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    public static RequestQueryStats begin(int maxStatements) {
+        RequestQueryStats stats = new RequestQueryStats(maxStatements);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public void record(String collection, String command, String filterShape, long nanos) {
+        calls++;
+        totalNanos += nanos;
+
+        if (slowest.size() < maxStatements || nanos > slowest.get(slowest.size() - 1).nanos()) {
+            slowest.add(new Statement(collection, command, filterShape, nanos));
+            slowest.sort(Comparator.comparingLong(Statement::nanos).reversed());
+            if (slowest.size() > maxStatements) {
+                slowest.remove(slowest.size() - 1);
+            }
+        }
+    }
+
+    public int getCalls() {
+        return calls;
+    }
+
+    public double getTotalMillis() {
+        return totalNanos / 1_000_000.0;
+    }
+
+    public List<Statement> getSlowest() {
+        return slowest;
+    }
+
+    public String toServerTiming() {
+        return String.format(Locale.ROOT, "db;dur=%.1f;desc=\"%d calls\"", getTotalMillis(), calls);
+    }
+
+    public record Statement(String collection, String command, String filterShape, long nanos) {
+        public double millis() {
+            return nanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s.%s %s (%.1f ms)", collection, command, filterShape, millis());
+        }
+    }
+}
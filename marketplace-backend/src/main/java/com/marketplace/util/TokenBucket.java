@@ -0,0 +1,31 @@
+package com.marketplace.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket in GCRA form: the whole state is one "theoretical arrival time", advanced with a CAS,
+// so acquiring is lock-free and a bucket costs a single long.
+public class TokenBucket {
+    private final AtomicLong theoreticalArrival = new AtomicLong();
+    private final long intervalNanos; // time to earn one token
+    private final long burstNanos; // how far ahead of now the TAT may run (capacity * interval)
+
+    public TokenBucket(long intervalNanos, int capacity) {
+        this.intervalNanos = intervalNanos;
+        this.burstNanos = intervalNanos * Math.max(1, capacity);
+    }
+
+    // Returns 0 when a token was taken, otherwise the nanos until one will be available
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, nowNanos) + intervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.marketplace.config;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.TaggableReadPreference;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// The routing tests need a replica set; a single machine is enough, e.g. three mongods on 27017-27019
+// in one set:
+// MONGODB_REPLSET_TEST_URI=mongodb://localhost:27017,localhost:27018,localhost:27019/marketplace_test?replicaSet=rs0 mvn test
+// A one-member set also works; reads then fall back to its primary.
+class MongoReadRoutingConfigTest {
+
+    private static final String REPLSET_URI = "MONGODB_REPLSET_TEST_URI";
+
+    private final MongoReadRoutingConfig config = new MongoReadRoutingConfig();
+    private SimpleMongoClientDatabaseFactory factory;
+    private String collection;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (factory == null) return;
+        if (collection != null) {
+            new MongoTemplate(factory).dropCollection(collection);
+        }
+        factory.destroy();
+    }
+
+    @Test
+    void primaryTemplateKeepsTheDriversPrimaryReads() {
+        MongoTemplate primary = primary(connect("mongodb://localhost:27017/marketplace_test"));
+        assertThat(primary.getReadPreference()).isNull();
+    }
+
+    @Test
+    void secondaryTemplateBoundsStalenessAtTheServerMinimum() {
+        connect("mongodb://localhost:27017/marketplace_test");
+        MongoTemplate secondary = secondary(true, Duration.ofSeconds(10));
+        assertThat(secondary.getReadPreference()).isEqualTo(ReadPreference.secondaryPreferred(90, TimeUnit.SECONDS));
+
+        secondary = secondary(true, Duration.ofMinutes(5));
+        assertThat(((TaggableReadPreference) secondary.getReadPreference()).getMaxStaleness(TimeUnit.SECONDS))
+                .isEqualTo(300);
+    }
+
+    @Test
+    void secondaryTemplateReadsFromThePrimaryWhenDisabled() {
+        connect("mongodb://localhost:27017/marketplace_test");
+        assertThat(secondary(false, Duration.ofSeconds(90)).getReadPreference()).isNull();
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = REPLSET_URI, matches = ".+")
+    void primaryTemplateReadsItsOwnWrites() {
+        MongoTemplate primary = primary(connect(System.getenv(REPLSET_URI)));
+        collection = "read_routing_" + UUID.randomUUID().toString().substring(0, 8);
+
+        for (int i = 0; i < 20; i++) {
+            primary.insert(new Document("_id", i), collection);
+            assertThat(primary.findById(i, Document.class, collection)).isNotNull();
+        }
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = REPLSET_URI, matches = ".+")
+    void secondaryTemplateIsAnsweredByASecondary() {
+        connect(System.getenv(REPLSET_URI));
+        assumeTrue(members() > 1, "replica set has no secondary");
+        MongoTemplate secondary = secondary(true, Duration.ofSeconds(90));
+
+        Document hello = secondary.executeCommand(new Document("hello", 1), secondary.getReadPreference());
+        assertThat(hello.getBoolean("secondary")).isTrue();
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = REPLSET_URI, matches = ".+")
+    void secondaryTemplateFallsBackToThePrimaryOfAOneMemberSet() {
+        connect(System.getenv(REPLSET_URI));
+        assumeTrue(members() == 1, "replica set has secondaries");
+        MongoTemplate secondary = secondary(true, Duration.ofSeconds(90));
+
+        Document hello = secondary.executeCommand(new Document("hello", 1), secondary.getReadPreference());
+        assertThat(hello.getBoolean("isWritablePrimary")).isTrue();
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = REPLSET_URI, matches = ".+")
+    void secondaryTemplateCatchesUpWithPrimaryWrites() {
+        MongoTemplate primary = primary(connect(System.getenv(REPLSET_URI)));
+        MongoTemplate secondary = secondary(true, Duration.ofSeconds(90));
+        collection = "read_routing_" + UUID.randomUUID().toString().substring(0, 8);
+
+        primary.insert(new Document("_id", "vendor").append("status", "ACTIVE"), collection);
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> secondary.findById("vendor", Document.class, collection) != null);
+    }
+
+    private SimpleMongoClientDatabaseFactory connect(String uri) {
+        factory = new SimpleMongoClientDatabaseFactory(uri);
+        return factory;
+    }
+
+    private MongoTemplate primary(SimpleMongoClientDatabaseFactory factory) {
+        return config.mongoTemplate(factory, new MongoTemplate(factory).getConverter());
+    }
+
+    private MongoTemplate secondary(boolean secondaryReads, Duration maxStaleness) {
+        return config.secondaryMongoTemplate(factory, new MongoTemplate(factory).getConverter(),
+                secondaryReads, maxStaleness);
+    }
+
+    private int members() {
+        Document hello = new MongoTemplate(factory).executeCommand(new Document("hello", 1));
+        return hello.getList("hosts", String.class, List.of()).size();
+    }
+}
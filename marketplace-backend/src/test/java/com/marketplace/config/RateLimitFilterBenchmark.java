@@ -0,0 +1,115 @@
+package com.marketplace.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+// Per-request cost of RateLimitFilter against calling the same pass-through chain directly. Every case
+// builds a fresh mock request and response, so the difference from the baseline is the filter's own
+// overhead. Limits are set high enough that nothing is refused. Skipped unless asked for:
+// BENCHMARK=true mvn test -Dtest=RateLimitFilterBenchmark
+@Tag("benchmark")
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+class RateLimitFilterBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int OPS_PER_ROUND = 200_000;
+    private static final int ADDRESSES = 1024;
+    private static final byte[] BODY = "{\"email\":\"vendor@x.com\",\"password\":\"secret\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static final FilterChain PASS_THROUGH = (req, res) -> ((HttpServletResponse) res).setStatus(200);
+
+    private long sink;
+
+    @Test
+    void perRequestOverhead() throws Exception {
+        RateLimitFilter filter = filter();
+        String[] addresses = new String[ADDRESSES];
+        for (int i = 0; i < ADDRESSES; i++) {
+            addresses[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+        }
+
+        double baseline = measure("pass-through chain", i -> request("/api/auth/login", addresses[i % ADDRESSES]), null);
+        double bypass = measure("filter, unlimited path", i -> request("/api/vendors", addresses[i % ADDRESSES]), filter);
+        double perIp = measure("filter, per-ip route", i -> request("/api/quotes", addresses[i % ADDRESSES]), filter);
+        double perEmail = measure("filter, per-ip + email route", i -> request("/api/auth/login", addresses[i % ADDRESSES]), filter);
+
+        System.out.printf("%-30s %8.1f ns/op%n", "pass-through chain", baseline);
+        System.out.printf("%-30s %8.1f ns/op (+%.1f)%n", "filter, unlimited path", bypass, bypass - baseline);
+        System.out.printf("%-30s %8.1f ns/op (+%.1f)%n", "filter, per-ip route", perIp, perIp - baseline);
+        System.out.printf("%-30s %8.1f ns/op (+%.1f)%n", "filter, per-ip + email route", perEmail, perEmail - baseline);
+        System.out.println("(sink " + sink + ")");
+    }
+
+    // Median ns/op over the measured rounds
+    private double measure(String name, IntFunction<MockHttpServletRequest> requests, RateLimitFilter filter) throws Exception {
+        double[] rounds = new double[ROUNDS];
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < OPS_PER_ROUND; i++) {
+                MockHttpServletRequest request = requests.apply(i);
+                MockHttpServletResponse response = new MockHttpServletResponse();
+                if (filter == null) {
+                    PASS_THROUGH.doFilter(request, response);
+                } else {
+                    filter.doFilter(request, response, PASS_THROUGH);
+                }
+                if (response.getStatus() != 200) {
+                    throw new IllegalStateException(name + " refused a request; raise the benchmark limits");
+                }
+                sink += response.getContentAsByteArray().length + request.getContentLength();
+            }
+            if (round >= WARMUP_ROUNDS) {
+                rounds[round - WARMUP_ROUNDS] = (double) (System.nanoTime() - start) / OPS_PER_ROUND;
+            }
+        }
+        Arrays.sort(rounds);
+        return rounds[ROUNDS / 2];
+    }
+
+    private static RateLimitFilter filter() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getRoutes().put("auth", route("/api/auth/**", true));
+        properties.getRoutes().put("quotes", route("/api/quotes", false));
+        return new RateLimitFilter(properties, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    private static RateLimitProperties.Route route(String path, boolean perEmail) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setMethod("POST");
+        route.setPaths(List.of(path));
+        route.setPerIp(unlimited());
+        if (perEmail) {
+            route.setPerEmail(unlimited());
+        }
+        return route;
+    }
+
+    private static RateLimitProperties.Limit unlimited() {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setRequests(1_000_000_000);
+        limit.setPeriod(Duration.ofSeconds(1));
+        return limit;
+    }
+
+    private static MockHttpServletRequest request(String path, String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(address);
+        request.setContentType("application/json");
+        request.setContent(BODY);
+        return request;
+    }
+}
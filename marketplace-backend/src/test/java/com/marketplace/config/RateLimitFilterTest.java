@@ -0,0 +1,139 @@
+package com.marketplace.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Limit perIp = new RateLimitProperties.Limit();
+        perIp.setRequests(2);
+        perIp.setPeriod(Duration.ofMinutes(1));
+        RateLimitProperties.Limit perEmail = new RateLimitProperties.Limit();
+        perEmail.setRequests(1);
+        perEmail.setPeriod(Duration.ofHours(1));
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setMethod("POST");
+        route.setPaths(List.of("/api/auth/**"));
+        route.setPerIp(perIp);
+        route.setPerEmail(perEmail);
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxBodyBytes(64);
+        properties.getRoutes().put("auth", route);
+        filter = new RateLimitFilter(properties, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void refusesPastTheIpBurstWithRetryAfter() throws Exception {
+        assertEquals(200, send("10.0.0.1", "{}").getStatus());
+        assertEquals(200, send("10.0.0.1", "{}").getStatus());
+
+        MockHttpServletResponse refused = send("10.0.0.1", "{}");
+        assertEquals(429, refused.getStatus());
+        // Two per minute: the next token is 30 seconds away
+        assertEquals("30", refused.getHeader("Retry-After"));
+        assertEquals(200, send("10.0.0.2", "{}").getStatus());
+    }
+
+    @Test
+    void limitsAnEmailAcrossAddressesIgnoringCase() throws Exception {
+        assertEquals(200, send("10.0.0.1", "{\"email\":\"vendor@x.com\"}").getStatus());
+
+        MockHttpServletResponse refused = send("10.0.0.2", "{\"email\":\"VENDOR@x.com\"}");
+        assertEquals(429, refused.getStatus());
+        assertEquals("3600", refused.getHeader("Retry-After"));
+    }
+
+    @Test
+    void replaysTheInspectedBodyDownstream() throws Exception {
+        String body = "{\"email\":\"vendor@x.com\",\"password\":\"secret\"}";
+        AtomicReference<String> seen = new AtomicReference<>();
+        filter.doFilter(request("10.0.0.1", body), new MockHttpServletResponse(),
+                (req, res) -> seen.set(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8)));
+        assertEquals(body, seen.get());
+    }
+
+    @Test
+    void replaysBodiesLargerThanTheInspectionLimit() throws Exception {
+        String body = "{\"email\":\"vendor@x.com\",\"note\":\"" + "x".repeat(200) + "\"}";
+        AtomicReference<String> seen = new AtomicReference<>();
+        filter.doFilter(request("10.0.0.1", body), new MockHttpServletResponse(),
+                (req, res) -> seen.set(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8)));
+        assertEquals(body, seen.get());
+    }
+
+    @Test
+    void readListenerGetsTheBufferedBody() throws Exception {
+        String body = "{\"email\":\"vendor@x.com\"}";
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allRead = new AtomicBoolean();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        FilterChain chain = (req, res) -> {
+            ServletInputStream in = req.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[8];
+                    while (in.isReady() && !in.isFinished()) {
+                        int n = in.read(buffer);
+                        if (n < 0) break;
+                        read.write(buffer, 0, n);
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allRead.set(true);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    error.set(t);
+                }
+            });
+        };
+
+        filter.doFilter(request("10.0.0.1", body), new MockHttpServletResponse(), chain);
+
+        assertNull(error.get());
+        assertTrue(allRead.get());
+        assertEquals(body, read.toString(StandardCharsets.UTF_8));
+    }
+
+    private MockHttpServletResponse send(String ip, String body) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(ip, body), response, (req, res) -> req.getInputStream().readAllBytes());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String ip, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
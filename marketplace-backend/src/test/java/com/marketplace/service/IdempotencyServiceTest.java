@@ -0,0 +1,230 @@
+package com.marketplace.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.config.RateLimitProperties;
+import com.marketplace.model.IdempotencyRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Mongo is mocked: an insert that doesn't throw means this node claimed the key
+class IdempotencyServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final AtomicInteger runs = new AtomicInteger();
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new IdempotencyService(mongoTemplate, new ObjectMapper(), new RateLimitProperties(),
+                Duration.ofHours(24), Duration.ofSeconds(30), 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void replaysTheStoredResponse() {
+        ResponseEntity<?> first = service.execute("quotes", "k1", "{\"a\":1}", this::created);
+        ResponseEntity<?> replay = service.execute("quotes", "k1", "{\"a\":1}", this::created);
+
+        assertThat(runs).hasValue(1);
+        assertThat(first.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(replay.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(replay.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(replay.getBody()).isEqualTo("{\"id\":\"q1\"}");
+    }
+
+    @Test
+    void replaysAResponseCompletedOnAnotherNode() {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setStatus("COMPLETED");
+        record.setRequestHash(hashOf("{\"a\":1}"));
+        record.setHttpStatus(200);
+        record.setResponseBody("{\"id\":\"q1\"}");
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("taken"));
+        when(mongoTemplate.findById(any(), eq(IdempotencyRecord.class))).thenReturn(record);
+
+        ResponseEntity<?> replay = service.execute("quotes", "k1", "{\"a\":1}", this::created);
+
+        assertThat(runs).hasValue(0);
+        assertThat(replay.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(replay.getBody()).isEqualTo("{\"id\":\"q1\"}");
+    }
+
+    @Test
+    void refusesAReusedKeyWithADifferentBody() {
+        service.execute("quotes", "k1", "{\"a\":1}", this::created);
+        ResponseEntity<?> reused = service.execute("quotes", "k1", "{\"a\":2}", this::created);
+
+        assertThat(runs).hasValue(1);
+        assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @Test
+    void releasesTheKeyWhenTheActionThrows() {
+        assertThatThrownBy(() -> service.execute("quotes", "k1", "{\"a\":1}", () -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        verify(mongoTemplate).remove(any(Query.class), eq(IdempotencyRecord.class));
+
+        service.execute("quotes", "k1", "{\"a\":1}", this::created);
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void releasesTheKeyOnAServerError() {
+        ResponseEntity<?> failed = service.execute("quotes", "k1", "{\"a\":1}", () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        });
+        assertThat(failed.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        verify(mongoTemplate).remove(any(Query.class), eq(IdempotencyRecord.class));
+
+        ResponseEntity<?> retried = service.execute("quotes", "k1", "{\"a\":1}", this::created);
+        assertThat(runs).hasValue(2);
+        assertThat(retried.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retried.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+    }
+
+    @Test
+    void concurrentCallsWithOneKeyRunTheActionOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<ResponseEntity<?>> leader = pool.submit(() -> service.execute("quotes", "k1", "{\"a\":1}", () -> {
+                started.countDown();
+                await(finish);
+                return created();
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            List<Future<ResponseEntity<?>>> followers = List.of(
+                    pool.submit(() -> service.execute("quotes", "k1", "{\"a\":1}", this::created)),
+                    pool.submit(() -> service.execute("quotes", "k1", "{\"a\":1}", this::created)));
+            finish.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+            for (Future<ResponseEntity<?>> follower : followers) {
+                ResponseEntity<?> response = follower.get(5, TimeUnit.SECONDS);
+                assertThat(response.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(runs).hasValue(1);
+        verify(mongoTemplate, times(1)).insert(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void keysAreScopedToTheCaller() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+        service.execute("quotes", "k1", "{\"a\":1}", this::created);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("bob", null, List.of()));
+        ResponseEntity<?> other = service.execute("quotes", "k1", "{\"a\":2}", this::created);
+
+        assertThat(runs).hasValue(2);
+        assertThat(other.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void renewsHeldLocksWhileTheActionRuns() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<ResponseEntity<?>> slow = pool.submit(() -> service.execute("quotes", "k1", "{\"a\":1}", () -> {
+                started.countDown();
+                await(finish);
+                return created();
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            service.renewLocks();
+            verify(mongoTemplate).updateMulti(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class));
+
+            finish.countDown();
+            slow.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        service.renewLocks();
+        verify(mongoTemplate, times(1)).updateMulti(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class));
+    }
+
+    @Test
+    void keepsTheLockAndRetriesWhenCompletionFails() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class)))
+                .thenThrow(new DataAccessResourceFailureException("primary stepped down"))
+                .thenThrow(new DataAccessResourceFailureException("primary stepped down"))
+                .thenReturn(null);
+
+        ResponseEntity<?> response = service.execute("quotes", "k1", "{\"a\":1}", this::created);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(IdempotencyRecord.class));
+
+        // The next renewal retries the COMPLETED update; once it lands there is nothing left to renew
+        service.renewLocks();
+        verify(mongoTemplate, times(3)).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class));
+        service.renewLocks();
+        verify(mongoTemplate, times(3)).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class));
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class));
+        assertThat(runs).hasValue(1);
+    }
+
+    private ResponseEntity<?> created() {
+        runs.incrementAndGet();
+        return ResponseEntity.ok(Map.of("id", "q1"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String hashOf(String body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
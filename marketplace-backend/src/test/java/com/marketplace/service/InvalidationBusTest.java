@@ -0,0 +1,173 @@
+package com.marketplace.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+// Two buses sharing one capped collection, as two app instances would. Needs a MongoDB to talk to:
+// MONGODB_TEST_URI=mongodb://localhost:27017/marketplace_test mvn test
+@EnabledIfEnvironmentVariable(named = "MONGODB_TEST_URI", matches = ".+")
+class InvalidationBusTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final List<SimpleMongoClientDatabaseFactory> factories = new ArrayList<>();
+    private final List<InvalidationBus> buses = new ArrayList<>();
+    private String collection;
+
+    @BeforeEach
+    void setUp() {
+        collection = "invalidation_events_" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        buses.forEach(InvalidationBus::stop);
+        if (!factories.isEmpty()) {
+            new MongoTemplate(factories.get(0)).dropCollection(collection);
+        }
+        for (SimpleMongoClientDatabaseFactory factory : factories) {
+            factory.destroy();
+        }
+    }
+
+    @Test
+    void peersReceiveEachOthersInvalidationsButNotTheirOwn() {
+        RecordingHandler a = new RecordingHandler();
+        RecordingHandler b = new RecordingHandler();
+        InvalidationBus busA = start("node-a", template(), a);
+        InvalidationBus busB = start("node-b", template(), b);
+
+        busA.publish(RecordingHandler.TOPIC, List.of("acme"));
+        busB.publish(RecordingHandler.TOPIC, List.of("zenith"));
+        busA.publish(RecordingHandler.TOPIC, List.of());
+
+        await().atMost(TIMEOUT).until(() -> b.flushes.get() == 1);
+        await().atMost(TIMEOUT).until(() -> a.invalidated.contains("zenith"));
+        assertThat(b.invalidated).containsExactly("acme");
+        assertThat(a.invalidated).containsExactly("zenith");
+        assertThat(a.flushes).hasValue(0);
+    }
+
+    @Test
+    void interleavedPublishersAreAllDelivered() {
+        RecordingHandler c = new RecordingHandler();
+        InvalidationBus busA = start("node-a", template(), new RecordingHandler());
+        InvalidationBus busB = start("node-b", template(), new RecordingHandler());
+        start("node-c", template(), c);
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            busA.publish(RecordingHandler.TOPIC, List.of("a-" + i));
+            busB.publish(RecordingHandler.TOPIC, List.of("b-" + i));
+            expected.add("a-" + i);
+            expected.add("b-" + i);
+        }
+
+        await().atMost(TIMEOUT).until(() -> c.invalidated.size() == expected.size());
+        assertThat(c.invalidated).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(c.flushes).hasValue(0);
+    }
+
+    @Test
+    void failedPublishMakesPeersFlush() {
+        MongoTemplate failing = spy(template());
+        RecordingHandler b = new RecordingHandler();
+        start("node-b", template(), b);
+        // Publish-only, so nothing but publish() goes through the failing template
+        InvalidationBus busA = bus("node-a", failing, new RecordingHandler());
+        busA.publish(RecordingHandler.TOPIC, List.of("before"));
+
+        doThrow(new IllegalStateException("primary stepped down"))
+                .doCallRealMethod()
+                .when(failing).getCollection(collection);
+        busA.publish(RecordingHandler.TOPIC, List.of("lost"));
+        busA.publish(RecordingHandler.TOPIC, List.of("after"));
+
+        await().atMost(TIMEOUT).until(() -> b.flushes.get() == 1);
+        assertThat(b.invalidated).containsExactly("before");
+    }
+
+    @Test
+    void gapInAnOriginsSequenceFlushes() {
+        MongoTemplate template = template();
+        RecordingHandler b = new RecordingHandler();
+        start("node-b", template, b);
+
+        template.getCollection(collection).insertOne(event("node-x", 1, "first"));
+        template.getCollection(collection).insertOne(event("node-x", 3, "third"));
+
+        await().atMost(TIMEOUT).until(() -> b.flushes.get() == 1);
+        assertThat(b.invalidated).containsExactly("first");
+    }
+
+    private MongoTemplate template() {
+        SimpleMongoClientDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(System.getenv("MONGODB_TEST_URI"));
+        factories.add(factory);
+        return new MongoTemplate(factory);
+    }
+
+    private InvalidationBus start(String node, MongoTemplate template, InvalidationHandler handler) {
+        InvalidationBus bus = bus(node, template, handler);
+        bus.start();
+        return bus;
+    }
+
+    private InvalidationBus bus(String node, MongoTemplate template, InvalidationHandler handler) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("handler", handler));
+        InvalidationBus bus = new InvalidationBus(template, beans.getBeanProvider(InvalidationHandler.class),
+                true, collection, 1 << 20, 1000, node);
+        buses.add(bus);
+        return bus;
+    }
+
+    private static Document event(String origin, long seq, String key) {
+        return new Document("origin", origin)
+                .append("seq", seq)
+                .append("topic", RecordingHandler.TOPIC)
+                .append("keys", List.of(key))
+                .append("createdAt", new Date());
+    }
+
+    private static class RecordingHandler implements InvalidationHandler {
+        static final String TOPIC = "vendors";
+
+        final List<String> invalidated = new CopyOnWriteArrayList<>();
+        final AtomicInteger flushes = new AtomicInteger();
+
+        @Override
+        public String topic() {
+            return TOPIC;
+        }
+
+        @Override
+        public void onInvalidate(Collection<String> keys) {
+            invalidated.addAll(keys);
+        }
+
+        @Override
+        public void onFlush() {
+            flushes.incrementAndGet();
+        }
+    }
+}
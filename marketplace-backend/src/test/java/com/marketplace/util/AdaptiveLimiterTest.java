@@ -0,0 +1,116 @@
+package com.marketplace.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Drives the limiter with a simulated clock through release(now, rtt, dropped). The simulated backend
+// answers in baseRtt while at most `capacity` requests are in flight and queues beyond that, so RTT
+// grows in proportion to the overload.
+class AdaptiveLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long TICK = 10 * MS;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+
+    // The limiter opens its first window at construction, on the real clock
+    private long now = System.nanoTime();
+
+    @Test
+    void growsWhileLatencyStaysFlat() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2, 200);
+        run(limiter, UNLIMITED, 20 * MS, 1000, 3000);
+        assertEquals(200, limiter.getLimit());
+    }
+
+    @Test
+    void holdsNearTheBackendsCapacityThroughProlongedOverload() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2, 500);
+        run(limiter, UNLIMITED, 20 * MS, 1000, 4000);
+        // Two simulated minutes of queueing, long enough for an unheld baseline to drift up to it
+        for (int minute = 0; minute < 2; minute++) {
+            run(limiter, 50, 20 * MS, 1000, 6000);
+            int limit = limiter.getLimit();
+            assertTrue(limit >= 25 && limit <= 100, "limit " + limit);
+        }
+        assertEquals(20.0, limiter.getLongRttMillis(), 1.0);
+    }
+
+    @Test
+    void adoptsASlowerBaselineOnceSheddingStopsHelping() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2, 500);
+        run(limiter, UNLIMITED, 20 * MS, 1000, 4000);
+        run(limiter, UNLIMITED, 60 * MS, 1000, 10000);
+        assertEquals(500, limiter.getLimit());
+        assertTrue(limiter.getLongRttMillis() > 30, "long rtt " + limiter.getLongRttMillis());
+    }
+
+    @Test
+    void backsOffMultiplicativelyOnDrops() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(100, 2, 200);
+        for (int window = 0; window < 3; window++) {
+            assertTrue(limiter.tryAcquire());
+            now += SECOND;
+            limiter.release(now, 20 * MS, true);
+        }
+        assertEquals(72, limiter.getLimit());
+    }
+
+    @Test
+    void doesNotGrowALimitThatIsNotUsed() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(100, 2, 200);
+        run(limiter, UNLIMITED, 20 * MS, 20, 3000);
+        assertEquals(100, limiter.getLimit());
+    }
+
+    @Test
+    void staysWithinItsBounds() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 5, 40);
+        run(limiter, UNLIMITED, 20 * MS, 1000, 3000);
+        assertEquals(40, limiter.getLimit());
+        for (int window = 0; window < 100; window++) {
+            assertTrue(limiter.tryAcquire());
+            now += SECOND;
+            limiter.release(now, 20 * MS, true);
+        }
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void ignoredRequestsLeaveNoSample() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2, 500);
+        run(limiter, UNLIMITED, 20 * MS, 1000, 4000);
+        // A flood of fast rejections returns its permits without touching the baseline
+        for (int t = 0; t < 6000; t++) {
+            int acquired = 0;
+            while (acquired < 1000 && limiter.tryAcquire()) {
+                acquired++;
+            }
+            now += TICK;
+            for (int i = 0; i < acquired; i++) {
+                limiter.ignore();
+            }
+        }
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(20.0, limiter.getLongRttMillis(), 0.01);
+        assertEquals(500, limiter.getLimit());
+    }
+
+    private void run(AdaptiveLimiter limiter, int capacity, long baseRtt, int demand, int ticks) {
+        for (int t = 0; t < ticks; t++) {
+            int acquired = 0;
+            while (acquired < demand && limiter.tryAcquire()) {
+                acquired++;
+            }
+            long queued = capacity == UNLIMITED ? 1 : Math.max(1, (acquired + capacity - 1) / capacity);
+            now += TICK;
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(now, baseRtt * queued, false);
+            }
+        }
+    }
+}
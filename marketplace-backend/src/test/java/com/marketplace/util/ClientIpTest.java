@@ -0,0 +1,42 @@
+package com.marketplace.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClientIpTest {
+
+    @Test
+    void ignoresForwardedForUnlessTrusted() {
+        assertEquals("10.0.0.9", ClientIp.of(request("203.0.113.7"), false, 1));
+    }
+
+    @Test
+    void takesTheAddressOurProxyAppended() {
+        // The client sent "1.2.3.4" itself; the proxy appended the address it actually saw
+        assertEquals("203.0.113.7", ClientIp.of(request("1.2.3.4, 203.0.113.7"), true, 1));
+        assertEquals("203.0.113.7", ClientIp.of(request("203.0.113.7"), true, 1));
+    }
+
+    @Test
+    void countsTrustedProxiesFromTheRight() {
+        assertEquals("203.0.113.7", ClientIp.of(request("1.2.3.4, 203.0.113.7, 10.0.0.2"), true, 2));
+        assertEquals("203.0.113.7", ClientIp.of(request("203.0.113.7"), true, 2));
+    }
+
+    @Test
+    void fallsBackToTheRemoteAddress() {
+        assertEquals("10.0.0.9", ClientIp.of(request(null), true, 1));
+        assertEquals("10.0.0.9", ClientIp.of(request("1.2.3.4, "), true, 1));
+    }
+
+    private static MockHttpServletRequest request(String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.9");
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,83 @@
+package com.marketplace.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    // 1.04 / sqrt(2^12), the sketch's standard error
+    private static final double SIGMA = 1.04 / Math.sqrt(HyperLogLog.REGISTER_COUNT);
+
+    @ParameterizedTest
+    @ValueSource(ints = {100, 1_000, 10_000, 50_000, 250_000, 1_000_000})
+    void estimateIsWithinThreeSigma(int cardinality) {
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < cardinality; i++) {
+            hll.add("visitor-" + i);
+        }
+        assertWithinThreeSigma(cardinality, hll.estimate());
+    }
+
+    @Test
+    void duplicatesDoNotCount() {
+        HyperLogLog hll = new HyperLogLog();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 20_000; i++) {
+                hll.add("visitor-" + i);
+            }
+        }
+        assertWithinThreeSigma(20_000, hll.estimate());
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        HyperLogLog both = new HyperLogLog();
+        // 60k on Monday, 60k on Tuesday, 20k of them on both days
+        for (int i = 0; i < 100_000; i++) {
+            String visitor = "visitor-" + i;
+            if (i < 60_000) monday.add(visitor);
+            if (i >= 40_000) tuesday.add(visitor);
+            both.add(visitor);
+        }
+
+        monday.merge(tuesday);
+
+        assertWithinThreeSigma(100_000, monday.estimate());
+        assertArrayEquals(both.toBytes(), monday.toBytes());
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < 5_000; i++) {
+            hll.add("visitor-" + i);
+        }
+        HyperLogLog copy = HyperLogLog.fromBytes(hll.toBytes());
+        assertEquals(hll.estimate(), copy.estimate());
+        assertArrayEquals(hll.toBytes(), copy.toBytes());
+    }
+
+    @Test
+    void emptySketchEstimatesZero() {
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void rejectsRegistersOfTheWrongSize() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[16]));
+    }
+
+    private static void assertWithinThreeSigma(long actual, long estimate) {
+        double error = Math.abs(estimate - actual) / (double) actual;
+        assertTrue(error <= 3 * SIGMA,
+                () -> "estimate " + estimate + " for " + actual + " is off by " + String.format("%.2f%%", error * 100));
+    }
+}
@@ -0,0 +1,84 @@
+package com.marketplace.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long START = TimeUnit.HOURS.toNanos(1);
+
+    @Test
+    void burstUpToCapacityThenWaitsOneInterval() {
+        TokenBucket bucket = new TokenBucket(SECOND, 3);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(START));
+        }
+        assertEquals(SECOND, bucket.tryAcquire(START));
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(SECOND, 2);
+        bucket.tryAcquire(START);
+        bucket.tryAcquire(START);
+
+        assertEquals(SECOND - SECOND / 4, bucket.tryAcquire(START + SECOND / 4));
+        assertEquals(0, bucket.tryAcquire(START + SECOND));
+        assertEquals(SECOND, bucket.tryAcquire(START + SECOND));
+        assertEquals(0, bucket.tryAcquire(START + 2 * SECOND));
+    }
+
+    @Test
+    void refusedRequestsDoNotUseTokens() {
+        TokenBucket bucket = new TokenBucket(SECOND, 1);
+        bucket.tryAcquire(START);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(bucket.tryAcquire(START) > 0);
+        }
+        assertEquals(0, bucket.tryAcquire(START + SECOND));
+    }
+
+    @Test
+    void idleTimeNeverBanksMoreThanCapacity() {
+        TokenBucket bucket = new TokenBucket(SECOND, 5);
+        long later = START + TimeUnit.HOURS.toNanos(1);
+        int granted = 0;
+        while (bucket.tryAcquire(later) == 0) {
+            granted++;
+        }
+        assertEquals(5, granted);
+    }
+
+    @Test
+    void concurrentCallersShareOneBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(SECOND, 50);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 100; i++) {
+                    if (bucket.tryAcquire(START) == 0) granted.incrementAndGet();
+                }
+            });
+        }
+        go.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(50, granted.get());
+    }
+}